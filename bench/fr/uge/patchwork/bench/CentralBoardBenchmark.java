@@ -0,0 +1,67 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmark of the moves of the time tokens on the central board
+ * The players are moved forward by passes before the measure. A move removes the old time token of
+ * its square and adds the new one, whatever the distance, so the benchmark moves the token of a
+ * player on its own square again and again
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CentralBoardBenchmark {
+  private static final int NB_PASSES = 10;
+
+  private CentralBoard centralBoard;
+  private List<Player> players;
+  private int index;
+
+  /**
+   * Load the central board and move the players forward
+   *
+   * @throws IOException if the file of the central board cannot be read
+   */
+  @Setup
+  public void setup() throws IOException {
+    centralBoard = Fixtures.centralBoard();
+    players = Fixtures.players();
+    centralBoard.initPlayers(players);
+    var player = players.get(0);
+    for (int i = 0; i < NB_PASSES; i++) {
+      player.passTurn(players, centralBoard);
+      centralBoard.moveToken(player);
+      player = player.nextPlayer(players);
+    }
+  }
+
+  /**
+   * Move the time token of the next player and return its old position
+   *
+   * @return (int)
+   */
+  @Benchmark
+  public int moveToken() {
+    index = (index + 1) % players.size();
+    return centralBoard.moveToken(players.get(index));
+  }
+}
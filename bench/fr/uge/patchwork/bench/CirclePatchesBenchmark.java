@@ -0,0 +1,98 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.Patch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmarks of the circle of patches
+ * A removal changes the circle, so the removal benchmark empties a fresh circle at each invocation
+ * and counts one operation per patch
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CirclePatchesBenchmark {
+  private static final int NB_PATCHES = 33;
+
+  private CirclePatches circlePatches;
+  private CirclePatches removedCircle;
+  private Patch[] removalOrder;
+
+  /**
+   * Load and shuffle the circle of the queries
+   *
+   * @throws IOException if the file of the patches cannot be read
+   */
+  @Setup
+  public void setup() throws IOException {
+    circlePatches = Fixtures.circlePatches();
+    circlePatches.shuffle(new Random(42));
+    circlePatches.placeNeutralToken();
+  }
+
+  /**
+   * Load a new circle to empty and draw the order of the removals
+   *
+   * @throws IOException if the file of the patches cannot be read
+   */
+  @Setup(Level.Invocation)
+  public void setupRemovals() throws IOException {
+    removedCircle = Fixtures.circlePatches();
+    if (removedCircle.getPatches().size() != NB_PATCHES) {
+      throw new IllegalStateException("The benchmark expects " + NB_PATCHES + " patches");
+    }
+    removedCircle.placeNeutralToken();
+    removalOrder = removedCircle.getPatches().toArray(new Patch[0]);
+    var random = new Random(42);
+    for (int i = removalOrder.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      var patch = removalOrder[i];
+      removalOrder[i] = removalOrder[j];
+      removalOrder[j] = patch;
+    }
+  }
+
+  /**
+   * Return the three patches after the neutral token
+   *
+   * @return (List < Patch >)
+   */
+  @Benchmark
+  public List<Patch> getNextPatches() {
+    return circlePatches.getNextPatches(3);
+  }
+
+  /**
+   * Remove every patch of a circle in a random order
+   *
+   * @return (CirclePatches) the empty circle
+   */
+  @Benchmark
+  @OperationsPerInvocation(NB_PATCHES)
+  public CirclePatches removePatch() {
+    for (var patch : removalOrder) {
+      removedCircle.removePatch(patch);
+    }
+    return removedCircle;
+  }
+}
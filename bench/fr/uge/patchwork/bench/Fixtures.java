@@ -0,0 +1,90 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.PlacementTable;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.QuiltBoard;
+import fr.uge.patchwork.game.main.AdvancedGame;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class for the objects shared by the benchmarks, built from the files of the advanced game
+ * The benchmarks are run from the root of the project, like the game
+ */
+final class Fixtures {
+  static final int MONEY = 5;
+  static final int QUILT_SIZE = 9;
+
+  private Fixtures() {
+  }
+
+  /**
+   * Return the circle of patches of the advanced game, in the order of the file
+   *
+   * @return (CirclePatches)
+   * @throws IOException if the file cannot be read
+   */
+  static CirclePatches circlePatches() throws IOException {
+    var circlePatches = new CirclePatches();
+    circlePatches.load(AdvancedGame.CIRCLE_PATCHES);
+    return circlePatches;
+  }
+
+  /**
+   * Return the central board of the advanced game
+   *
+   * @return (CentralBoard)
+   * @throws IOException if the file cannot be read
+   */
+  static CentralBoard centralBoard() throws IOException {
+    var centralBoard = new CentralBoard();
+    centralBoard.load(AdvancedGame.CENTRAL_BOARD);
+    return centralBoard;
+  }
+
+  /**
+   * Return the patches of the advanced game
+   *
+   * @return (List < Patch >)
+   * @throws IOException if the file cannot be read
+   */
+  static List<Patch> patches() throws IOException {
+    return List.copyOf(circlePatches().getPatches());
+  }
+
+  /**
+   * Return the players of a game
+   *
+   * @return (List < Player >)
+   */
+  static List<Player> players() {
+    return List.of(new Player("Player 1", '1', MONEY), new Player("Player 2", '2', MONEY));
+  }
+
+  /**
+   * Return a quilt board with random patches placed at random valid placements
+   *
+   * @param patches   (List < Patch >) the patches to draw from
+   * @param nbPatches (int) number of patches to try to place
+   * @param random    (Random) the random generator
+   * @return (QuiltBoard)
+   */
+  static QuiltBoard quiltBoard(List<Patch> patches, int nbPatches, Random random) {
+    var quiltBoard = new QuiltBoard(QUILT_SIZE, QUILT_SIZE);
+    for (int i = 0; i < nbPatches; i++) {
+      var patch = patches.get(random.nextInt(patches.size()));
+      var placements = quiltBoard.legalPlacements(patch);
+      if (placements.length > 0) {
+        int placement = placements[random.nextInt(placements.length)];
+        quiltBoard.addPatch(patch.orient(PlacementTable.getOrientation(placement)),
+                PlacementTable.getX(placement), PlacementTable.getY(placement));
+      }
+    }
+    return quiltBoard;
+  }
+}
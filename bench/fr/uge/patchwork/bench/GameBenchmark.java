@@ -0,0 +1,228 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.MoveGenerator;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.PlacementTable;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.main.AdvancedGame;
+import fr.uge.patchwork.game.main.DecisionProvider;
+import fr.uge.patchwork.game.main.GameDriver;
+import fr.uge.patchwork.game.main.GameListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmarks of whole advanced games played at random
+ * The files are read and a pool of deals is drawn from a fixed seed once per trial, then each invocation plays
+ * the next deal of the pool:
+ * - the object game builds the objects of the deal (a copy of the central board, new players and circle of patches)
+ * and runs the turns of AdvancedGame with a GameDriver, without display: its decision providers buy a random patch
+ * that fits at a random placement three times out of four when they can, and pass otherwise
+ * - the engine game plays random legal moves on a GameEngine built on the deal
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+  private static final int NB_DEALS = 256;
+
+  /**
+   * Class for the pool of deals shared by the benchmarks
+   */
+  @State(Scope.Benchmark)
+  public static class Deals {
+    private CentralBoard centralBoard;
+    private GameState[] starts;
+
+    /**
+     * Read the files of the advanced game and draw the deals, the circle shuffled like AdvancedGame shuffles it
+     *
+     * @throws IOException if the files of the game cannot be read
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      var circlePatches = Fixtures.circlePatches();
+      centralBoard = Fixtures.centralBoard();
+      var players = new ArrayList<>(Fixtures.players());
+      var playedBoard = centralBoard.copy();
+      playedBoard.initPlayers(players);
+      var rules = GameRules.of(players, playedBoard, circlePatches, AdvancedGame.newSpecialTile());
+      var ids = circlePatches.getPatches().stream().mapToInt(Patch::id).toArray();
+      var random = new Random(42);
+      starts = new GameState[NB_DEALS];
+      for (int i = 0; i < NB_DEALS; i++) {
+        var ring = ids.clone();
+        CirclePatches.shuffle(ring, random);
+        int neutralToken = CirclePatches.neutralToken(ring, id -> rules.getPatch(id).getNumberOfBlocks());
+        starts[i] = GameState.initial(rules, Fixtures.MONEY, ring, neutralToken);
+      }
+    }
+
+    /**
+     * Return the start state of a deal of the pool
+     *
+     * @param index (int) index of the deal, taken modulo the size of the pool
+     * @return (GameState)
+     */
+    GameState getStart(int index) {
+      return starts[index % NB_DEALS];
+    }
+  }
+
+  /**
+   * Class for the games played with the objects of the game by one thread
+   */
+  @State(Scope.Thread)
+  public static class ObjectGame {
+    private final Random random = new Random(42);
+    private int nextDeal;
+    private CirclePatches circlePatches;
+
+    /**
+     * Build the objects of the next deal and play a random game on them, return the winner
+     *
+     * @param deals (Deals) the pool of deals
+     * @return (Player)
+     */
+    Player play(Deals deals) {
+      var players = new ArrayList<>(Fixtures.players());
+      var centralBoard = deals.centralBoard.copy();
+      centralBoard.initPlayers(players);
+      circlePatches = new CirclePatches();
+      var specialTile = AdvancedGame.newSpecialTile();
+      deals.getStart(nextDeal++).restore(players, centralBoard, circlePatches, specialTile);
+      var decisions = new RandomDecisions();
+      return new GameDriver(players, centralBoard, circlePatches, specialTile, List.of(decisions, decisions),
+              GameListener.NONE).play();
+    }
+
+    /**
+     * Class for the random decisions of the players of the object game
+     */
+    private final class RandomDecisions implements DecisionProvider {
+      /**
+       * Return a random patch that fits at a random placement three times out of four when the player
+       * can buy one, empty to pass otherwise
+       *
+       * @param driver (GameDriver) the driver of the game
+       * @param player (Player) the player
+       * @return (Optional < Map < Patch, int[] > >)
+       */
+      @Override
+      public Optional<Map<Patch, int[]>> chooseAction(GameDriver driver, Player player) {
+        if (!driver.canBuyPatch(player) || random.nextInt(4) == 0) {
+          return Optional.empty();
+        }
+        var quiltBoard = player.getQuiltBoard();
+        var candidates = new ArrayList<Patch>();
+        for (var patch : circlePatches.getNextPatches(GameRules.NB_NEXT_PATCHES)) {
+          if (patch.price() <= player.getMoney() && quiltBoard.canAddPatch(patch)) {
+            candidates.add(patch);
+          }
+        }
+        return Optional.of(randomPlacement(player, candidates.get(random.nextInt(candidates.size()))));
+      }
+
+      /**
+       * Return a random placement of the leather patch
+       *
+       * @param driver       (GameDriver) the driver of the game
+       * @param player       (Player) the player
+       * @param leatherPatch (Patch) the leather patch
+       * @return (Map < Patch, int[] >)
+       */
+      @Override
+      public Map<Patch, int[]> placeLeatherPatch(GameDriver driver, Player player, Patch leatherPatch) {
+        return randomPlacement(player, leatherPatch);
+      }
+
+      /**
+       * Return a patch oriented at a random placement that fits on the quilt board of a player, with its coordinates
+       *
+       * @param player (Player) the player
+       * @param patch  (Patch) the patch, that fits on the quilt board
+       * @return (Map < Patch, int[] >)
+       */
+      private Map<Patch, int[]> randomPlacement(Player player, Patch patch) {
+        var placements = player.getQuiltBoard().legalPlacements(patch);
+        int placement = placements[random.nextInt(placements.length)];
+        return Map.of(patch.orient(PlacementTable.getOrientation(placement)),
+                new int[]{PlacementTable.getX(placement), PlacementTable.getY(placement)});
+      }
+    }
+  }
+
+  /**
+   * Class for the games played on a GameEngine by one thread
+   */
+  @State(Scope.Thread)
+  public static class EngineGame {
+    private final Random random = new Random(42);
+    private final MoveGenerator generator = new MoveGenerator();
+    private int nextDeal;
+
+    /**
+     * Play random legal moves on an engine on the next deal until the end of the game, return the final score
+     * of the first player
+     *
+     * @param deals (Deals) the pool of deals
+     * @return (int)
+     */
+    int play(Deals deals) {
+      var engine = new GameEngine(deals.getStart(nextDeal++));
+      while (!engine.isFinished()) {
+        engine.apply(generator.getMove(random.nextInt(generator.generate(engine))));
+      }
+      return engine.getFinalScore(0);
+    }
+  }
+
+  /**
+   * Play a random game with the objects of the game and return the winner
+   *
+   * @param deals (Deals) the pool of deals
+   * @param game  (ObjectGame) the state of the thread
+   * @return (Player)
+   */
+  @Benchmark
+  public Player objectGame(Deals deals, ObjectGame game) {
+    return game.play(deals);
+  }
+
+  /**
+   * Play random legal moves on the engine until the end of the game and return the final score
+   * of the first player
+   *
+   * @param deals (Deals) the pool of deals
+   * @param game  (EngineGame) the state of the thread
+   * @return (int)
+   */
+  @Benchmark
+  public int engineGame(Deals deals, EngineGame game) {
+    return game.play(deals);
+  }
+}
@@ -0,0 +1,87 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.bot.MctsBot;
+import fr.uge.patchwork.bot.Parallelization;
+import fr.uge.patchwork.bot.PlayoutPolicy;
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.main.AdvancedGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmark of the scaling of the MCTS bot with the number of threads
+ * For each parallelization and each number of threads, the bot searches the first move of an advanced game
+ * with a fixed number of iterations, so the score is in playouts per second
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MctsBenchmark {
+  private static final int ITERATIONS = 4096;
+
+  @Param({"1", "2", "4", "8"})
+  public int nbThreads;
+
+  @Param({"ROOT", "TREE"})
+  public Parallelization parallelization;
+
+  private GameEngine engine;
+  private MctsBot bot;
+
+  /**
+   * Deal the advanced game and start the threads of the bot
+   *
+   * @throws IOException if the files of the game cannot be read
+   */
+  @Setup
+  public void setup() throws IOException {
+    var players = new ArrayList<>(Fixtures.players());
+    var circlePatches = Fixtures.circlePatches();
+    var centralBoard = Fixtures.centralBoard();
+    circlePatches.shuffle(new Random(42));
+    circlePatches.placeNeutralToken();
+    centralBoard.initPlayers(players);
+    engine = new GameEngine(GameState.of(players, centralBoard, circlePatches, AdvancedGame.newSpecialTile()));
+    bot = new MctsBot(MctsBot.DEFAULT_EXPLORATION, PlayoutPolicy.GREEDY, ITERATIONS, 0,
+            MctsBot.DEFAULT_PLACEMENTS_PER_PATCH, parallelization, nbThreads, 42);
+  }
+
+  /**
+   * Stop the threads of the bot
+   */
+  @TearDown
+  public void tearDown() {
+    bot.close();
+  }
+
+  /**
+   * Search the first move of the game and return it
+   *
+   * @return (int)
+   */
+  @Benchmark
+  @OperationsPerInvocation(ITERATIONS)
+  public int search() {
+    return bot.chooseMove(engine);
+  }
+}
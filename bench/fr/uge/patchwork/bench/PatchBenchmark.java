@@ -0,0 +1,63 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.Patch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmarks of the rotation and the mirror of the patches
+ * The benchmarks go through the patches of the advanced game one after the other
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatchBenchmark {
+  private Patch[] patches;
+  private int index;
+
+  /**
+   * Load the patches
+   *
+   * @throws IOException if the file of the patches cannot be read
+   */
+  @Setup
+  public void setup() throws IOException {
+    patches = Fixtures.patches().toArray(new Patch[0]);
+  }
+
+  /**
+   * Return the next patch rotated
+   *
+   * @return (Patch)
+   */
+  @Benchmark
+  public Patch rotate() {
+    index = (index + 1) % patches.length;
+    return patches[index].rotate();
+  }
+
+  /**
+   * Return the next patch flipped
+   *
+   * @return (Patch)
+   */
+  @Benchmark
+  public Patch flip() {
+    index = (index + 1) % patches.length;
+    return patches[index].flip();
+  }
+}
@@ -0,0 +1,99 @@
+package fr.uge.patchwork.bench;
+
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.QuiltBoard;
+import fr.uge.patchwork.game.main.AdvancedGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for the benchmarks of the queries of a quilt board
+ * The quilt board is filled with a number of random patches, and the queries go through the patches
+ * (and the coordinates) one after the other so that no result can be folded
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuiltBoardBenchmark {
+  private static final int NB_PROBES = 1024;
+
+  @Param({"0", "6", "12"})
+  public int nbPatches;
+
+  private QuiltBoard quiltBoard;
+  private Patch[] patches;
+  private Patch[] probePatches;
+  private int[] probeXs;
+  private int[] probeYs;
+  private int index;
+
+  /**
+   * Fill the quilt board and draw the probes of the placements
+   *
+   * @throws IOException if the files of the game cannot be read
+   */
+  @Setup
+  public void setup() throws IOException {
+    var random = new Random(42);
+    var list = Fixtures.patches();
+    quiltBoard = Fixtures.quiltBoard(list, nbPatches, random);
+    patches = list.toArray(new Patch[0]);
+    probePatches = new Patch[NB_PROBES];
+    probeXs = new int[NB_PROBES];
+    probeYs = new int[NB_PROBES];
+    for (int i = 0; i < NB_PROBES; i++) {
+      var patch = patches[random.nextInt(patches.length)];
+      probePatches[i] = patch.orient(random.nextInt(patch.shape().getNbOrientations()));
+      probeXs[i] = random.nextInt(Fixtures.QUILT_SIZE);
+      probeYs[i] = random.nextInt(Fixtures.QUILT_SIZE);
+    }
+  }
+
+  /**
+   * Return true if the next patch can be placed somewhere on the quilt board
+   *
+   * @return (boolean)
+   */
+  @Benchmark
+  public boolean canAddPatch() {
+    index = (index + 1) % patches.length;
+    return quiltBoard.canAddPatch(patches[index]);
+  }
+
+  /**
+   * Return true if the next probe is a valid placement
+   *
+   * @return (boolean)
+   */
+  @Benchmark
+  public boolean isValidPlacement() {
+    index = (index + 1) & (NB_PROBES - 1);
+    return quiltBoard.isValidPlacement(probePatches[index], probeXs[index], probeYs[index]);
+  }
+
+  /**
+   * Return true if the quilt board contains the square of the special tile
+   *
+   * @return (boolean)
+   */
+  @Benchmark
+  public boolean containsSquare() {
+    return quiltBoard.containsSquare(AdvancedGame.SPECIAL_TILE_SIZE);
+  }
+}
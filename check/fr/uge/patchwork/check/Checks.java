@@ -0,0 +1,108 @@
+package fr.uge.patchwork.check;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.SpecialTile;
+import fr.uge.patchwork.game.main.AdvancedGame;
+import fr.uge.patchwork.game.main.BasicGame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class for the objects shared by the checks, built from the files of the games
+ * The checks are run from the root of the project, like the game
+ */
+final class Checks {
+  private static final int MONEY = 5;
+
+  private Checks() {
+  }
+
+  /**
+   * Return the circle of patches of a game, in the order of the file
+   *
+   * @param advanced (boolean) true for the advanced game, false for the basic game
+   * @return (CirclePatches)
+   * @throws IOException if the file cannot be read
+   */
+  static CirclePatches circlePatches(boolean advanced) throws IOException {
+    var circlePatches = new CirclePatches();
+    circlePatches.load(advanced ? AdvancedGame.CIRCLE_PATCHES : BasicGame.CIRCLE_PATCHES);
+    return circlePatches;
+  }
+
+  /**
+   * Return the central board of a game
+   *
+   * @param advanced (boolean) true for the advanced game, false for the basic game
+   * @return (CentralBoard)
+   * @throws IOException if the file cannot be read
+   */
+  static CentralBoard centralBoard(boolean advanced) throws IOException {
+    var centralBoard = new CentralBoard();
+    centralBoard.load(advanced ? AdvancedGame.CENTRAL_BOARD : BasicGame.CENTRAL_BOARD);
+    return centralBoard;
+  }
+
+  /**
+   * Return the players of a game, at the start of the time track of a central board
+   *
+   * @param centralBoard (CentralBoard) the central board
+   * @return (ArrayList < Player >)
+   */
+  static ArrayList<Player> players(CentralBoard centralBoard) {
+    var players = new ArrayList<>(List.of(new Player("Player 1", '1', MONEY), new Player("Player 2", '2', MONEY)));
+    centralBoard.initPlayers(players);
+    return players;
+  }
+
+  /**
+   * Return the special tile of a game
+   *
+   * @param advanced (boolean) true for the advanced game, false for the basic game
+   * @return (SpecialTile) null for the basic game
+   */
+  static SpecialTile specialTile(boolean advanced) {
+    return advanced ? AdvancedGame.newSpecialTile() : null;
+  }
+
+  /**
+   * Return the state at the start of a game, dealt like BasicGame and AdvancedGame deal it
+   *
+   * @param rules    (GameRules) the rules of the game, null to build them from the files
+   * @param advanced (boolean) true for the advanced game, false for the basic game
+   * @param seed     (long) the seed of the shuffle of the circle of patches
+   * @return (GameState)
+   * @throws IOException if the files cannot be read
+   */
+  static GameState start(GameRules rules, boolean advanced, long seed) throws IOException {
+    var circlePatches = circlePatches(advanced);
+    var centralBoard = centralBoard(advanced);
+    circlePatches.shuffle(new SplittableRandom(seed));
+    circlePatches.placeNeutralToken();
+    var players = players(centralBoard);
+    var specialTile = specialTile(advanced);
+    if (rules == null) {
+      return GameState.of(players, centralBoard, circlePatches, specialTile);
+    }
+    return GameState.of(rules, players, centralBoard, circlePatches, specialTile);
+  }
+
+  /**
+   * Fail a check if its condition is false
+   *
+   * @param condition (boolean) the condition
+   * @param message   (String) the message of the failure
+   */
+  static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package fr.uge.patchwork.check;
+
+import fr.uge.patchwork.bot.EndgameSolver;
+import fr.uge.patchwork.bot.TranspositionTable;
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.MoveGenerator;
+import fr.uge.patchwork.game.PlacementTable;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.SpecialTile;
+import fr.uge.patchwork.game.main.AdvancedGame;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Class for the check of the EndgameSolver against a plain minimax over every move of MoveGenerator
+ * The positions are:
+ * - the endgames of random games of both rules, at small distances so the minimax stays fast
+ * - built endgames of the advanced game where the last purchase of a player crosses the last leather patch,
+ * so the placement of the purchased patch decides whether the leather patch completes the square of the
+ * special tile. The special tile of these endgames has the earnings of the rules of the board game (7 buttons),
+ * the one of AdvancedGame has none
+ */
+public final class EndgameCheck {
+  private static final int DEFAULT_NB_GAMES = 100;
+  private static final int[] GAME_DISTANCES = {2, 3};
+  private static final int LEATHER_DISTANCE = 6;
+  private static final int MAX_MONEY = 12;
+  private static final int SPECIAL_TILE_EARNINGS = 7;
+
+  private EndgameCheck() {
+  }
+
+  /**
+   * Return the value of the state of an engine for its current player with a minimax over every move,
+   * memoized by hash
+   *
+   * @param engine (GameEngine) the engine
+   * @param values (HashMap < Long, Integer >) the values of the states already searched
+   * @return (int)
+   */
+  private static int minimax(GameEngine engine, HashMap<Long, Integer> values) {
+    int player = engine.getCurrentPlayer();
+    if (engine.isFinished()) {
+      return engine.getFinalScore(player) - engine.getFinalScore(1 - player);
+    }
+    var known = values.get(engine.getHash());
+    if (known != null) {
+      return known;
+    }
+    var generator = new MoveGenerator();
+    generator.generate(engine);
+    int best = Integer.MIN_VALUE;
+    for (var move : generator.toArray()) {
+      engine.apply(move);
+      int value = engine.getCurrentPlayer() == player ? minimax(engine, values) : -minimax(engine, values);
+      engine.undo();
+      best = Math.max(best, value);
+    }
+    values.put(engine.getHash(), best);
+    return best;
+  }
+
+  /**
+   * Return the special tile of the built endgames: the one of the advanced game with the earnings of the rules
+   * of the board game
+   *
+   * @return (SpecialTile)
+   */
+  private static SpecialTile specialTile() {
+    return new SpecialTile(AdvancedGame.SPECIAL_TILE_SIZE, SPECIAL_TILE_EARNINGS, null);
+  }
+
+  /**
+   * Check the value of the solver on the state of an engine
+   *
+   * @param solver (EndgameSolver) the solver
+   * @param engine (GameEngine) the engine, in the endgame of the solver
+   */
+  private static void checkPosition(EndgameSolver solver, GameEngine engine) {
+    int expected = minimax(engine, new HashMap<>());
+    int value = solver.solve(engine).orElseThrow();
+    Checks.check(value == expected, "The solver finds " + value + " instead of " + expected + " at positions "
+            + engine.getPosition(0) + " and " + engine.getPosition(1));
+  }
+
+  /**
+   * Play random moves from the start of a game until the endgame of the solver, then check the solver
+   *
+   * @param solver (EndgameSolver) the solver
+   * @param start  (GameState) the state at the start of the game
+   * @param random (SplittableRandom) the random generator of the moves
+   */
+  private static void checkGame(EndgameSolver solver, GameState start, SplittableRandom random) {
+    var engine = new GameEngine(start);
+    var generator = new MoveGenerator();
+    while (!engine.isFinished() && (engine.isLeatherPhase() || !solver.isEndgame(engine))) {
+      engine.apply(generator.getMove(random.nextInt(generator.generate(engine))));
+    }
+    if (!engine.isFinished()) {
+      checkPosition(solver, engine);
+    }
+  }
+
+  /**
+   * Move the time token of a player to a position, one square at a time (a pass of the player alone)
+   *
+   * @param player       (Player) the player
+   * @param position     (int) the position
+   * @param centralBoard (CentralBoard) the central board
+   */
+  private static void moveTo(Player player, int position, CentralBoard centralBoard) {
+    while (player.getPosition() < position) {
+      player.passTurn(List.of(player), centralBoard);
+    }
+  }
+
+  /**
+   * Fill the quilt board of a player with leather patches, except some squares
+   *
+   * @param player (Player) the player
+   * @param rules  (GameRules) the rules of the game
+   * @param holes  (boolean[]) the squares left empty, by y * width + x
+   */
+  private static void fill(Player player, GameRules rules, boolean[] holes) {
+    int width = rules.getQuiltWidth();
+    for (int y = 0; y < rules.getQuiltHeight(); y++) {
+      for (int x = 0; x < width; x++) {
+        if (!holes[y * width + x]) {
+          player.placePatch(rules.getLeatherPatch(), x, y);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the squares of a placement of a patch, by y * width + x
+   *
+   * @param table (PlacementTable) the placement table of the patch
+   * @param index (int) index of the placement
+   * @param size  (int) number of squares of the quilt board
+   * @return (boolean[])
+   */
+  private static boolean[] squares(PlacementTable table, int index, int size) {
+    var squares = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      long mask = i < Long.SIZE ? table.getLowMask(index) >>> i : table.getHighMask(index) >>> (i - Long.SIZE);
+      squares[i] = (mask & 1) != 0;
+    }
+    return squares;
+  }
+
+  /**
+   * Return true if a square of the special tile is in every possible square of the special tile
+   *
+   * @param rules  (GameRules) the rules of the game
+   * @param square (int) the square, y * width + x
+   * @return (boolean)
+   */
+  private static boolean inEverySpecialTile(GameRules rules, int square) {
+    int width = rules.getQuiltWidth();
+    int x = square % width;
+    int y = square / width;
+    return x >= width - rules.getSpecialTileSize() && x < rules.getSpecialTileSize()
+            && y >= rules.getQuiltHeight() - rules.getSpecialTileSize() && y < rules.getSpecialTileSize();
+  }
+
+  /**
+   * Return true if a possible square of the special tile has none of some squares
+   *
+   * @param rules   (GameRules) the rules of the game
+   * @param squares (boolean[]) the squares, by y * width + x
+   * @return (boolean)
+   */
+  private static boolean outOfASpecialTile(GameRules rules, boolean[] squares) {
+    int width = rules.getQuiltWidth();
+    int tile = rules.getSpecialTileSize();
+    for (int top = 0; top + tile <= rules.getQuiltHeight(); top++) {
+      for (int left = 0; left + tile <= width; left++) {
+        boolean out = true;
+        for (int i = 0; i < squares.length && out; i++) {
+          out = !squares[i] || i % width < left || i % width >= left + tile || i / width < top || i / width >= top + tile;
+        }
+        if (out) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the engine of a built endgame of the advanced game, null if the drawn patches don't allow it
+   * The first player is on its last turn before the last leather patch and can buy one of the next patches,
+   * which brings it to the end of the time track. Its quilt board is full but for two placements of this patch
+   * and a square in every possible square of the special tile: only the placement that covers a square of
+   * every possible square of the special tile lets the leather patch complete it
+   * The quilt board of the other player is full but for a few random squares
+   *
+   * @param rules  (GameRules) the rules of the advanced game, with the special tile of the built endgames
+   * @param random (SplittableRandom) the random generator
+   * @return (GameEngine)
+   * @throws IOException if the files of the game cannot be read
+   */
+  private static GameEngine leatherEndgame(GameRules rules, SplittableRandom random) throws IOException {
+    var circlePatches = Checks.circlePatches(true);
+    var centralBoard = Checks.centralBoard(true);
+    circlePatches.shuffle(random);
+    circlePatches.placeNeutralToken();
+    var players = Checks.players(centralBoard);
+    int end = rules.getTrackSize() - 1;
+    int leather = rules.getLeatherPosition(rules.getNbLeatherPatches() - 1);
+    int behind = end - LEATHER_DISTANCE + random.nextInt(leather - end + LEATHER_DISTANCE + 1);
+    moveTo(players.get(0), behind, centralBoard);
+    moveTo(players.get(1), behind + random.nextInt(end - behind + 1), centralBoard);
+    var last = circlePatches.getNextPatches(GameRules.NB_NEXT_PATCHES).stream()
+            .filter(patch -> behind + patch.forwardBlocks() >= end)
+            .findFirst();
+    if (last.isEmpty()) {
+      return null;
+    }
+    int size = rules.getQuiltWidth() * rules.getQuiltHeight();
+    var table = rules.getPlacementTable(last.orElseThrow().id());
+    var completing = squares(table, random.nextInt(table.size()), size);
+    var other = squares(table, random.nextInt(table.size()), size);
+    var holes = new boolean[size];
+    int tileHole = random.nextInt(size);
+    for (int i = 0; i < size; i++) {
+      if (completing[i] && other[i]) {
+        return null;
+      }
+      holes[i] = completing[i] || other[i];
+    }
+    if (!outOfASpecialTile(rules, other) || holes[tileHole] || !inEverySpecialTile(rules, tileHole)
+            || IntStream.range(0, size).noneMatch(i -> completing[i] && inEverySpecialTile(rules, i))) {
+      return null;
+    }
+    holes[tileHole] = true;
+    var player = players.get(0);
+    player.addMoney(last.orElseThrow().price() + random.nextInt(MAX_MONEY + 1) - player.getMoney());
+    fill(player, rules, holes);
+    var otherPlayer = players.get(1);
+    otherPlayer.addMoney(random.nextInt(MAX_MONEY + 1) - otherPlayer.getMoney());
+    var otherHoles = new boolean[size];
+    for (int i = 2 + random.nextInt(5); i > 0; i--) {
+      otherHoles[random.nextInt(size)] = true;
+    }
+    fill(otherPlayer, rules, otherHoles);
+    return new GameEngine(GameState.of(rules, players, centralBoard, circlePatches, specialTile()));
+  }
+
+  /**
+   * Check the solver against the minimax on random endgames and on built endgames around the last leather patch
+   *
+   * @param args (String[]) the number of games of each kind (100 by default) and the seed (0 by default)
+   * @throws IOException if the files of the games cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    int nbGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_GAMES;
+    var random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 0);
+    var table = new TranspositionTable(1 << 16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+    for (var distance : GAME_DISTANCES) {
+      var solver = new EndgameSolver(distance, 0, table);
+      for (var advanced : new boolean[]{false, true}) {
+        for (int game = 0; game < nbGames; game++) {
+          checkGame(solver, Checks.start(null, advanced, random.nextLong()), random.split());
+        }
+      }
+    }
+    var solver = new EndgameSolver(LEATHER_DISTANCE, 0, table);
+    var centralBoard = Checks.centralBoard(true);
+    var rules = GameRules.of(Checks.players(centralBoard), centralBoard, Checks.circlePatches(true), specialTile());
+    int nbEndgames = 0;
+    while (nbEndgames < nbGames) {
+      var engine = leatherEndgame(rules, random);
+      if (engine != null) {
+        checkPosition(solver, engine);
+        nbEndgames++;
+      }
+    }
+    System.out.println("EndgameCheck: " + 4 * nbGames + " random games at distances 2 and 3, "
+            + nbEndgames + " leather endgames, OK");
+  }
+}
@@ -0,0 +1,145 @@
+package fr.uge.patchwork.check;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.Move;
+import fr.uge.patchwork.game.MoveGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Class for the check of the GameEngine on random games of both rules
+ * At each position of a game, every legal move is applied then undone:
+ * - the incremental hash after the move is the hash of a new engine on the same state
+ * - the undo brings back the values and the hash of the position
+ * - a random packed move which is not legal is rejected with an IllegalArgumentException, without changing the position
+ * At the end of the game, every move is undone back to the state at the start of the game
+ */
+public final class EngineCheck {
+  private static final int DEFAULT_NB_GAMES = 100;
+
+  private EngineCheck() {
+  }
+
+  /**
+   * Return the values of an engine that a move changes
+   *
+   * @param engine (GameEngine) the engine
+   * @return (long[])
+   */
+  private static long[] values(GameEngine engine) {
+    var values = new long[6 * GameState.NB_PLAYERS + 6 + GameRules.NB_NEXT_PATCHES + engine.getRules().getNbLeatherPatches()];
+    int i = 0;
+    for (int player = 0; player < GameState.NB_PLAYERS; player++) {
+      values[i++] = engine.getPosition(player);
+      values[i++] = engine.getMoney(player);
+      values[i++] = engine.getEarnings(player);
+      values[i++] = engine.getQuiltLow(player);
+      values[i++] = engine.getQuiltHigh(player);
+      values[i++] = engine.getFinalScore(player);
+    }
+    values[i++] = engine.getCurrentPlayer();
+    values[i++] = engine.isLeatherPhase() ? 1 : 0;
+    values[i++] = engine.isFinished() ? 1 : 0;
+    values[i++] = engine.getRingSize();
+    values[i++] = engine.getSpecialTileOwner();
+    values[i++] = engine.getNbUndoMoves();
+    for (int index = 0; index < GameRules.NB_NEXT_PATCHES; index++) {
+      values[i++] = engine.getRingSize() == 0 ? -1 : engine.getNextPatchId(index);
+    }
+    for (int index = 0; index < engine.getRules().getNbLeatherPatches(); index++) {
+      values[i++] = engine.hasLeatherPatch(index) ? 1 : 0;
+    }
+    return values;
+  }
+
+  /**
+   * Check that the engine rejects a random packed move which is not legal, without changing the position
+   *
+   * @param engine (GameEngine) the engine
+   * @param moves  (int[]) the legal moves of the position
+   * @param values (long[]) the values of the position
+   * @param random (SplittableRandom) the random generator of the move
+   */
+  private static void checkIllegalMove(GameEngine engine, int[] moves, long[] values, SplittableRandom random) {
+    long hash = engine.getHash();
+    int move = switch (random.nextInt(4)) {
+      case 0 -> random.nextInt();
+      case 1 -> Move.buy(random.nextInt(GameRules.NB_NEXT_PATCHES + 1), random.nextInt(1 << 16));
+      case 2 -> Move.leather(random.nextInt(1 << 16));
+      default -> random.nextInt(1 << 24);
+    };
+    for (var legal : moves) {
+      if (legal == move) {
+        return;
+      }
+    }
+    try {
+      engine.apply(move);
+      Checks.check(false, "Illegal move " + move + " applied");
+    } catch (IllegalArgumentException e) {
+      Checks.check(engine.getHash() == hash, "Hash changed by the illegal move " + move);
+      Checks.check(Arrays.equals(values(engine), values), "Position changed by the illegal move " + move);
+    }
+  }
+
+  /**
+   * Check a random game from its start state and return its number of moves
+   *
+   * @param start  (GameState) the state at the start of the game
+   * @param random (SplittableRandom) the random generator of the moves
+   * @return (int)
+   */
+  private static int checkGame(GameState start, SplittableRandom random) {
+    var engine = new GameEngine(start);
+    var generator = new MoveGenerator();
+    int nbMoves = 0;
+    while (!engine.isFinished()) {
+      long hash = engine.getHash();
+      var values = values(engine);
+      generator.generate(engine);
+      var moves = generator.toArray();
+      for (var move : moves) {
+        engine.apply(move);
+        if (!engine.isLeatherPhase()) {
+          Checks.check(engine.getHash() == new GameEngine(engine.snapshot()).getHash(),
+                  "Incremental hash differs from the hash of the state after the move " + move);
+        }
+        engine.undo();
+        Checks.check(engine.getHash() == hash, "Hash not restored by the undo of the move " + move);
+        Checks.check(Arrays.equals(values(engine), values), "Position not restored by the undo of the move " + move);
+      }
+      checkIllegalMove(engine, moves, values, random);
+      engine.apply(moves[random.nextInt(moves.length)]);
+      nbMoves++;
+    }
+    for (int i = 0; i < nbMoves; i++) {
+      engine.undo();
+    }
+    Checks.check(engine.getNbUndoMoves() == 0, "Moves left in the undo log at the start of the game");
+    Checks.check(engine.snapshot().equals(start), "State at the start of the game not restored by the undos");
+    Checks.check(engine.getHash() == new GameEngine(start).getHash(), "Hash at the start of the game not restored by the undos");
+    return nbMoves;
+  }
+
+  /**
+   * Check the engine on random games of the basic game and of the advanced game
+   *
+   * @param args (String[]) the number of games of each rules (100 by default) and the seed (0 by default)
+   * @throws IOException if the files of the games cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    int nbGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_GAMES;
+    var random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 0);
+    long nbMoves = 0;
+    for (var advanced : new boolean[]{false, true}) {
+      for (int game = 0; game < nbGames; game++) {
+        nbMoves += checkGame(Checks.start(null, advanced, random.nextLong()), random.split());
+      }
+    }
+    System.out.println("EngineCheck: " + 2 * nbGames + " games, " + nbMoves + " moves, OK");
+  }
+}
@@ -0,0 +1,193 @@
+package fr.uge.patchwork.check;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRecord;
+import fr.uge.patchwork.game.GameReplayer;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.MoveGenerator;
+import fr.uge.patchwork.game.ShapeRegistry;
+import fr.uge.patchwork.game.main.AdvancedGame;
+import fr.uge.patchwork.game.main.BasicGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Class for the check of the round trip of the game records on random games of both rules
+ * The formats of the patches rotated a quarter turn are registered before the files are loaded, like a
+ * display could do, and the records are replayed with rules built apart from the ones of the games:
+ * - the orientations of every patch are in the canonical order of ShapeRegistry
+ * - a record read from its binary format, alone or after other records, equals the written one
+ * - the replay of a record ends on the final state of the game, and undoes back to its start
+ * - the start of a record whose circle has a patch twice, misses a patch or has an extra one is rejected
+ */
+public final class RecordCheck {
+  private static final int DEFAULT_NB_GAMES = 500;
+
+  private RecordCheck() {
+  }
+
+  /**
+   * Return the format of a patch rotated a quarter turn clockwise
+   *
+   * @param format (String) the format of the patch
+   * @return (String)
+   */
+  private static String rotate(String format) {
+    var lines = format.split(",");
+    int width = Arrays.stream(lines).mapToInt(String::length).max().orElse(0);
+    var rotated = new StringBuilder();
+    for (int column = 0; column < width; column++) {
+      if (column > 0) {
+        rotated.append(',');
+      }
+      for (int line = lines.length - 1; line >= 0; line--) {
+        rotated.append(column < lines[line].length() ? lines[line].charAt(column) : '.');
+      }
+    }
+    return rotated.toString();
+  }
+
+  /**
+   * Register the formats of the patches of a file rotated a quarter turn, before the patches themselves
+   *
+   * @param path (Path) the file of the circle of patches (see CirclePatches.load)
+   * @throws IOException if the file cannot be read
+   */
+  private static void registerRotated(Path path) throws IOException {
+    for (var line : Files.readAllLines(path)) {
+      ShapeRegistry.get(rotate(line.split(":")[4]));
+    }
+  }
+
+  /**
+   * Check that the orientations of every patch of the rules are in the canonical order
+   *
+   * @param rules (GameRules) the rules
+   */
+  private static void checkOrientations(GameRules rules) {
+    for (int id = 0; id <= rules.getMaxPatchId(); id++) {
+      var patch = rules.getPatch(id);
+      if (patch == null) {
+        continue;
+      }
+      var shape = patch.shape();
+      for (int i = 1; i < shape.getNbOrientations(); i++) {
+        Checks.check(shape.getOrientation(i - 1).getFormat().compareTo(shape.getOrientation(i).getFormat()) < 0,
+                "The orientations of the patch " + id + " are not in the canonical order");
+      }
+    }
+  }
+
+  /**
+   * Play a random game, check the round trip of its record and return the record
+   *
+   * @param rules    (GameRules) the rules of the game
+   * @param replayer (GameReplayer) the replayer, with rules built apart from the ones of the game
+   * @param advanced (boolean) true for the advanced game, false for the basic game
+   * @param random   (SplittableRandom) the random generator of the deal and of the moves
+   * @return (GameRecord)
+   * @throws IOException if the files of the game cannot be read
+   */
+  private static GameRecord checkGame(GameRules rules, GameReplayer replayer, boolean advanced, SplittableRandom random)
+          throws IOException {
+    var start = Checks.start(rules, advanced, random.nextLong());
+    var engine = new GameEngine(start);
+    var generator = new MoveGenerator();
+    var moves = new int[64];
+    int nbMoves = 0;
+    while (!engine.isFinished()) {
+      int move = generator.getMove(random.nextInt(generator.generate(engine)));
+      engine.apply(move);
+      if (nbMoves == moves.length) {
+        moves = Arrays.copyOf(moves, 2 * nbMoves);
+      }
+      moves[nbMoves++] = move;
+    }
+    var record = GameRecord.of(start, Arrays.copyOf(moves, nbMoves));
+    var bytes = record.toBytes();
+    Checks.check(bytes.length == record.getEncodedSize(), "The record takes " + bytes.length + " bytes instead of "
+            + record.getEncodedSize());
+    Checks.check(GameRecord.fromBytes(bytes).equals(record), "The record read differs from the record written");
+    var replayed = replayer.replay(record);
+    Checks.check(replayed.isFinished() && replayed.getHash() == engine.getHash()
+            && replayed.getFinalScore(0) == engine.getFinalScore(0) && replayed.getFinalScore(1) == engine.getFinalScore(1),
+            "The replay of the record doesn't end on the final state of the game");
+    int nbReplayed = random.nextInt(nbMoves + 1);
+    var partial = replayer.replay(record, nbReplayed);
+    for (int i = 0; i < nbReplayed; i++) {
+      partial.undo();
+    }
+    Checks.check(partial.getHash() == new GameEngine(start).getHash(), "The undos of a replay don't go back to the start");
+    return record;
+  }
+
+  /**
+   * Check that the start states of the circles of a record corrupted in every way are rejected
+   *
+   * @param rules  (GameRules) the rules of the game of the record
+   * @param record (GameRecord) the record
+   */
+  private static void checkCorruptRings(GameRules rules, GameRecord record) {
+    var ring = new int[record.getRingSize()];
+    for (int i = 0; i < ring.length; i++) {
+      ring[i] = record.getRingPatch(i);
+    }
+    var duplicate = ring.clone();
+    duplicate[1] = duplicate[0];
+    var leather = ring.clone();
+    leather[0] = rules.getLeatherPatch().id();
+    var extra = Arrays.copyOf(ring, ring.length + 1);
+    extra[ring.length] = ring[0];
+    for (var corrupt : new int[][]{duplicate, leather, extra, Arrays.copyOf(ring, ring.length - 1)}) {
+      try {
+        GameState.initial(rules, record.getMoney(), corrupt, 0);
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      throw new IllegalStateException("The corrupt circle " + Arrays.toString(corrupt) + " is accepted");
+    }
+  }
+
+  /**
+   * Check the round trip of the records of random games of the basic game and of the advanced game
+   *
+   * @param args (String[]) the number of games of each rules (500 by default) and the seed (0 by default)
+   * @throws IOException if the files of the games cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    int nbGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_GAMES;
+    var random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 0);
+    registerRotated(BasicGame.CIRCLE_PATCHES);
+    registerRotated(AdvancedGame.CIRCLE_PATCHES);
+    long nbBytes = 0;
+    for (var advanced : new boolean[]{false, true}) {
+      var rules = Checks.start(null, advanced, 0).getRules();
+      checkOrientations(rules);
+      var replayer = new GameReplayer(Checks.start(null, advanced, 0).getRules());
+      var records = new ArrayList<GameRecord>();
+      int size = 0;
+      for (int game = 0; game < nbGames; game++) {
+        var record = checkGame(rules, replayer, advanced, random);
+        records.add(record);
+        size += record.getEncodedSize();
+      }
+      var buffer = ByteBuffer.allocate(size);
+      records.forEach(record -> record.write(buffer));
+      buffer.flip();
+      for (var record : records) {
+        Checks.check(GameRecord.read(buffer).equals(record), "A record read after other records differs from the one written");
+      }
+      Checks.check(!buffer.hasRemaining(), "Bytes left after the records");
+      checkCorruptRings(rules, records.get(0));
+      nbBytes += size;
+    }
+    System.out.println("RecordCheck: " + 2 * nbGames + " games, " + nbBytes / (2 * nbGames) + " bytes per record, OK");
+  }
+}
@@ -0,0 +1,400 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.Move;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for a bot that chooses its moves with an alpha-beta search (negamax)
+ * The search deepens one ply at a time until the maximum depth or the deadline, each depth starting with
+ * an aspiration window around the value of the previous one. The moves are ordered by the best move of
+ * the transposition table, then the killer moves of the ply, then the history of the cutoffs
+ * A player can play several times in a row (purchases, leather patches), so the value of a child is only
+ * negated when the current player changes
+ * With no time limit, the search and its move are the same from one run to the next
+ */
+public final class AlphaBetaBot implements Bot {
+  /**
+   * Default half width of the aspiration window
+   */
+  public static final int DEFAULT_ASPIRATION_WINDOW = 4;
+  /**
+   * Default memory of the transposition table in megabytes
+   */
+  public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+  private static final int INFINITY = Short.MAX_VALUE;
+  private static final int NO_MOVE = -1;
+  private static final int MAX_PLY = 256;
+  private static final int NB_KILLERS = 2;
+  private static final int TABLE_MOVE_ORDER = Integer.MAX_VALUE;
+  private static final int KILLER_ORDER = Integer.MAX_VALUE - NB_KILLERS;
+  private static final int DEADLINE_CHECK_MASK = 0x3FF;
+
+  private final int maxDepth;
+  private final long maxMillis;
+  private final int aspirationWindow;
+  private final CandidateMoves candidateMoves;
+  private final TranspositionTable table;
+  private final Evaluator evaluator;
+  private final int[][] moves;
+  private final int[][] orders;
+  private final int[] killers = new int[NB_KILLERS * MAX_PLY];
+  private int[] history = new int[0];
+  private int historyStride;
+  private GameEngine engine;
+  private long deadline;
+  private boolean aborted;
+  private int rootBestMove;
+  private long nbNodes;
+  private int completedDepth;
+  private int lastValue;
+
+  /**
+   * Init an alpha-beta bot
+   *
+   * @param maxDepth           (int) maximum depth of the search in moves
+   * @param maxMillis          (long) maximum time of a search in milliseconds, 0 for no limit
+   * @param aspirationWindow   (int) half width of the aspiration window
+   * @param placementsPerPatch (int) number of placements of a patch in the searched moves
+   * @param table              (TranspositionTable) transposition table of the bot
+   * @param evaluator          (Evaluator) static evaluation of the positions at the end of the search
+   */
+  public AlphaBetaBot(int maxDepth, long maxMillis, int aspirationWindow, int placementsPerPatch, TranspositionTable table,
+                      Evaluator evaluator) {
+    Objects.requireNonNull(table);
+    Objects.requireNonNull(evaluator);
+    if (maxDepth <= 0 || maxDepth >= MAX_PLY) {
+      throw new IllegalArgumentException("The maximum depth must be between 1 and " + (MAX_PLY - 1));
+    }
+    if (maxMillis < 0) {
+      throw new IllegalArgumentException("The maximum time must be positive");
+    }
+    if (aspirationWindow <= 0) {
+      throw new IllegalArgumentException("The aspiration window must be positive");
+    }
+    this.maxDepth = maxDepth;
+    this.maxMillis = maxMillis;
+    this.aspirationWindow = aspirationWindow;
+    this.candidateMoves = new CandidateMoves(placementsPerPatch);
+    this.table = table;
+    this.evaluator = evaluator;
+    this.moves = new int[MAX_PLY][candidateMoves.getMaxCandidates()];
+    this.orders = new int[MAX_PLY][candidateMoves.getMaxCandidates()];
+  }
+
+  /**
+   * Init an alpha-beta bot with the default aspiration window, placements per patch, transposition table
+   * and evaluator
+   *
+   * @param maxDepth  (int) maximum depth of the search in moves
+   * @param maxMillis (long) maximum time of a search in milliseconds, 0 for no limit
+   */
+  public AlphaBetaBot(int maxDepth, long maxMillis) {
+    this(maxDepth, maxMillis, DEFAULT_ASPIRATION_WINDOW, MctsBot.DEFAULT_PLACEMENTS_PER_PATCH,
+            TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+            new HeuristicEvaluator());
+  }
+
+  /**
+   * Return the best packed move of the deepest completed search
+   *
+   * @param engine (GameEngine) the engine, not finished
+   * @return (int)
+   */
+  @Override
+  public int chooseMove(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    if (engine.isFinished()) {
+      throw new IllegalStateException("The game is finished");
+    }
+    prepare(engine);
+    int nbRootMoves = candidateMoves.add(this.engine, moves[0], 0);
+    int bestMove = moves[0][0];
+    int value = 0;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      int alpha = depth == 1 ? -INFINITY : value - aspirationWindow;
+      int beta = depth == 1 ? INFINITY : value + aspirationWindow;
+      rootBestMove = NO_MOVE;
+      int result;
+      while (true) {
+        result = negamax(depth, 0, alpha, beta);
+        if (aborted) {
+          break;
+        }
+        if (result <= alpha && alpha > -INFINITY) {
+          alpha = -INFINITY;
+        } else if (result >= beta && beta < INFINITY) {
+          beta = INFINITY;
+        } else {
+          break;
+        }
+      }
+      if (aborted) {
+        if (completedDepth == 0 && rootBestMove != NO_MOVE) {
+          bestMove = rootBestMove;
+        }
+        break;
+      }
+      bestMove = rootBestMove;
+      value = result;
+      completedDepth = depth;
+      lastValue = value;
+      if (nbRootMoves == 1) {
+        break;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Prepare a search on the state of an engine
+   *
+   * @param root (GameEngine) the engine, copied
+   */
+  private void prepare(GameEngine root) {
+    engine = root.copy();
+    var rules = engine.getRules();
+    candidateMoves.prepare(rules);
+    int stride = 0;
+    for (int id = 0; id <= rules.getMaxPatchId(); id++) {
+      if (rules.getPatch(id) != null) {
+        stride = Math.max(stride, rules.getPlacementTable(id).size());
+      }
+    }
+    int length = 1 + (rules.getMaxPatchId() + 1) * stride;
+    if (history.length != length) {
+      history = new int[length];
+    }
+    historyStride = stride;
+    Arrays.fill(history, 0);
+    Arrays.fill(killers, NO_MOVE);
+    table.newSearch();
+    deadline = maxMillis == 0 ? Long.MAX_VALUE : System.nanoTime() + maxMillis * 1_000_000;
+    aborted = false;
+    nbNodes = 0;
+    completedDepth = 0;
+  }
+
+  /**
+   * Return the value of the state of the engine for its current player
+   *
+   * @param depth (int) depth left
+   * @param ply   (int) distance to the root
+   * @param alpha (int) lower bound of the window
+   * @param beta  (int) upper bound of the window
+   * @return (int)
+   */
+  private int negamax(int depth, int ply, int alpha, int beta) {
+    if ((++nbNodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+    int player = engine.getCurrentPlayer();
+    if (engine.isFinished()) {
+      return engine.getFinalScore(player) - engine.getFinalScore(1 - player);
+    }
+    if (depth == 0 || ply == MAX_PLY - 1) {
+      return evaluator.evaluate(engine, player);
+    }
+    long hash = engine.getHash();
+    int tableMove = NO_MOVE;
+    long data = table.probe(hash);
+    if (data != TranspositionTable.MISS) {
+      tableMove = TranspositionTable.getMove(data);
+      if (ply > 0 && TranspositionTable.getDepth(data) >= depth) {
+        int value = TranspositionTable.getValue(data);
+        switch (TranspositionTable.getBound(data)) {
+          case EXACT -> {
+            return value;
+          }
+          case LOWER -> {
+            if (value >= beta) {
+              return value;
+            }
+          }
+          case UPPER -> {
+            if (value <= alpha) {
+              return value;
+            }
+          }
+        }
+      }
+    }
+    var plyMoves = moves[ply];
+    var plyOrders = orders[ply];
+    int nbMoves = candidateMoves.add(engine, plyMoves, 0);
+    for (int i = 0; i < nbMoves; i++) {
+      plyOrders[i] = order(plyMoves[i], ply, tableMove);
+    }
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = plyMoves[0];
+    for (int i = 0; i < nbMoves; i++) {
+      int move = nextMove(plyMoves, plyOrders, i, nbMoves);
+      engine.apply(move);
+      int value = engine.getCurrentPlayer() == player
+              ? negamax(depth - 1, ply + 1, alpha, beta)
+              : -negamax(depth - 1, ply + 1, -beta, -alpha);
+      engine.undo();
+      if (aborted) {
+        return 0;
+      }
+      if (value > best) {
+        best = value;
+        bestMove = move;
+        if (ply == 0) {
+          rootBestMove = move;
+        }
+      }
+      alpha = Math.max(alpha, value);
+      if (alpha >= beta) {
+        addCutoff(move, ply, depth);
+        break;
+      }
+    }
+    var bound = best <= originalAlpha ? TranspositionTable.Bound.UPPER
+            : best >= beta ? TranspositionTable.Bound.LOWER
+            : TranspositionTable.Bound.EXACT;
+    table.store(hash, best, depth, bound, bestMove);
+    return best;
+  }
+
+  /**
+   * Return the order of a move: the move of the transposition table first, then the killer moves,
+   * then the moves with the most cutoffs
+   *
+   * @param move      (int) packed move
+   * @param ply       (int) distance to the root
+   * @param tableMove (int) move of the transposition table
+   * @return (int)
+   */
+  private int order(int move, int ply, int tableMove) {
+    if (move == tableMove) {
+      return TABLE_MOVE_ORDER;
+    }
+    for (int k = 0; k < NB_KILLERS; k++) {
+      if (killers[NB_KILLERS * ply + k] == move) {
+        return KILLER_ORDER - k;
+      }
+    }
+    return history[historyIndex(move)];
+  }
+
+  /**
+   * Swap the move with the best order among the moves left to the given index and return it
+   *
+   * @param plyMoves  (int[]) moves of the ply
+   * @param plyOrders (int[]) orders of the moves of the ply
+   * @param index     (int) index of the next move
+   * @param nbMoves   (int) number of moves of the ply
+   * @return (int)
+   */
+  private static int nextMove(int[] plyMoves, int[] plyOrders, int index, int nbMoves) {
+    int best = index;
+    for (int i = index + 1; i < nbMoves; i++) {
+      if (plyOrders[i] > plyOrders[best]) {
+        best = i;
+      }
+    }
+    int move = plyMoves[best];
+    int order = plyOrders[best];
+    plyMoves[best] = plyMoves[index];
+    plyOrders[best] = plyOrders[index];
+    plyMoves[index] = move;
+    plyOrders[index] = order;
+    return move;
+  }
+
+  /**
+   * Remember a move that caused a cutoff as a killer move of its ply and in the history
+   *
+   * @param move  (int) packed move
+   * @param ply   (int) distance to the root
+   * @param depth (int) depth left
+   */
+  private void addCutoff(int move, int ply, int depth) {
+    int first = NB_KILLERS * ply;
+    if (killers[first] != move) {
+      System.arraycopy(killers, first, killers, first + 1, NB_KILLERS - 1);
+      killers[first] = move;
+    }
+    int index = historyIndex(move);
+    history[index] = Math.min(KILLER_ORDER - NB_KILLERS, history[index] + depth * depth);
+  }
+
+  /**
+   * Return the index of a move of the current state in the history: the patch and its placement
+   *
+   * @param move (int) packed move
+   * @return (int)
+   */
+  private int historyIndex(int move) {
+    int id = switch (Move.getKind(move)) {
+      case PASS -> -1;
+      case BUY -> engine.getNextPatchId(Move.getSlot(move));
+      case LEATHER -> engine.getRules().getLeatherPatch().id();
+    };
+    return 1 + (id < 0 ? -1 : id * historyStride + Move.getPlacement(move));
+  }
+
+  /**
+   * Return the number of nodes of the last search
+   *
+   * @return (long)
+   */
+  public long getNbNodes() {
+    return nbNodes;
+  }
+
+  /**
+   * Return the deepest completed depth of the last search
+   *
+   * @return (int)
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Return the value of the deepest completed depth of the last search, for the player who moves
+   *
+   * @return (int)
+   */
+  public int getLastValue() {
+    return lastValue;
+  }
+
+  /**
+   * Return the transposition table of the bot
+   *
+   * @return (TranspositionTable)
+   */
+  public TranspositionTable getTable() {
+    return table;
+  }
+
+  /**
+   * Return the name of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String getName() {
+    return "Alpha-beta";
+  }
+
+  /**
+   * Return a string representation of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return "Alpha-beta (depth: " + maxDepth + ", time: " + maxMillis + " ms, aspiration window: " + aspirationWindow + ")";
+  }
+}
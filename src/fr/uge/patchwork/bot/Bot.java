@@ -0,0 +1,24 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+
+/**
+ * Interface for a computer player
+ */
+public interface Bot {
+  /**
+   * Return the packed move chosen for the current player of an engine (see Move)
+   * The engine is left in the state it was given
+   *
+   * @param engine (GameEngine) the engine, not finished
+   * @return (int)
+   */
+  int chooseMove(GameEngine engine);
+
+  /**
+   * Return the name of the bot
+   *
+   * @return (String)
+   */
+  String getName();
+}
@@ -0,0 +1,113 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.Move;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.PlacementTable;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.main.DecisionProvider;
+import fr.uge.patchwork.game.main.GameDriver;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Class for a player whose decisions are taken by a bot instead of the display
+ * The player is its own decision provider, so a game driver asks the bot for its decisions
+ */
+public final class BotPlayer extends Player implements DecisionProvider {
+  private final Bot bot;
+  private GameEngine engine;
+
+  /**
+   * Init a bot player
+   *
+   * @param name      (String) name of the player
+   * @param shortName (char) short name of the player
+   * @param money     (int) money of the player
+   * @param bot       (Bot) bot of the player
+   */
+  public BotPlayer(String name, char shortName, int money, Bot bot) {
+    super(name, shortName, money);
+    this.bot = Objects.requireNonNull(bot);
+  }
+
+  /**
+   * Return the bot of the player
+   *
+   * @return (Bot)
+   */
+  public Bot getBot() {
+    return bot;
+  }
+
+  /**
+   * Return the action chosen by the bot at the start of the turn of the player
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player, this one
+   * @return (Optional < Map < Patch, int[] > >) empty if the player passes,
+   * else the patch to buy in its orientation and its position on the quilt board
+   */
+  @Override
+  public Optional<Map<Patch, int[]>> chooseAction(GameDriver driver, Player player) {
+    Objects.requireNonNull(driver);
+    checkPlayer(player);
+    engine = new GameEngine(driver.getState());
+    int move = bot.chooseMove(engine);
+    engine.apply(move);
+    if (Move.getKind(move) == Move.Kind.PASS) {
+      return Optional.empty();
+    }
+    var patch = driver.getCirclePatches().getNextPatch(Move.getSlot(move));
+    return Optional.of(placement(patch, Move.getPlacement(move)));
+  }
+
+  /**
+   * Return the position chosen by the bot for the leather patch found during the turn of the player
+   *
+   * @param driver       (GameDriver) the driver of the game
+   * @param player       (Player) the player, this one
+   * @param leatherPatch (Patch) the leather patch
+   * @return (Map < Patch, int[] >) the leather patch in its orientation and its position on the quilt board
+   */
+  @Override
+  public Map<Patch, int[]> placeLeatherPatch(GameDriver driver, Player player, Patch leatherPatch) {
+    Objects.requireNonNull(driver);
+    checkPlayer(player);
+    Objects.requireNonNull(leatherPatch);
+    if (engine == null || !engine.isLeatherPhase()) {
+      throw new IllegalStateException("No leather patch to place");
+    }
+    int move = bot.chooseMove(engine);
+    engine.apply(move);
+    return placement(leatherPatch, Move.getPlacement(move));
+  }
+
+  /**
+   * Check that the decisions are asked for this player
+   *
+   * @param player (Player) the player
+   */
+  private void checkPlayer(Player player) {
+    Objects.requireNonNull(player);
+    if (player != this) {
+      throw new IllegalArgumentException("A bot player only takes its own decisions");
+    }
+  }
+
+  /**
+   * Return a patch in the orientation of a placement and the position of the placement
+   *
+   * @param patch     (Patch) the patch
+   * @param placement (int) index of the placement in the placement table of the patch
+   * @return (Map < Patch, int[] >)
+   */
+  private Map<Patch, int[]> placement(Patch patch, int placement) {
+    var table = engine.getRules().getPlacementTable(patch.id());
+    int packed = table.getPlacement(placement);
+    return Map.of(patch.orient(PlacementTable.getOrientation(packed)),
+            new int[]{PlacementTable.getX(packed), PlacementTable.getY(packed)});
+  }
+}
@@ -0,0 +1,94 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.Move;
+
+/**
+ * Class for the candidate moves searched by the bots
+ * The candidate moves of a state are a pass and, for each affordable patch among the next patches, its
+ * placements with the most contacts (see PlacementScorer), best first: the hundreds of placements of a
+ * patch would spread a search too thin
+ * Nothing is allocated once the scorer of the rules is built
+ */
+final class CandidateMoves {
+  private final int[] bestPlacements;
+  private final int[] bestScores;
+  private PlacementScorer scorer;
+
+  /**
+   * Init the candidate moves
+   *
+   * @param placementsPerPatch (int) number of placements of a patch in the candidate moves
+   */
+  CandidateMoves(int placementsPerPatch) {
+    if (placementsPerPatch <= 0) {
+      throw new IllegalArgumentException("The number of placements per patch must be positive");
+    }
+    this.bestPlacements = new int[placementsPerPatch];
+    this.bestScores = new int[placementsPerPatch];
+  }
+
+  /**
+   * Prepare the candidate moves for the rules of a game
+   *
+   * @param rules (GameRules) rules of the game
+   */
+  void prepare(GameRules rules) {
+    if (scorer == null || scorer.getRules() != rules) {
+      scorer = new PlacementScorer(rules);
+    }
+  }
+
+  /**
+   * Return the placement scorer of the rules prepared last
+   *
+   * @return (PlacementScorer)
+   */
+  PlacementScorer getScorer() {
+    return scorer;
+  }
+
+  /**
+   * Return the maximum number of candidate moves of a state
+   *
+   * @return (int)
+   */
+  int getMaxCandidates() {
+    return 1 + GameRules.NB_NEXT_PATCHES * bestPlacements.length;
+  }
+
+  /**
+   * Write the candidate moves of the current player of an engine in a buffer and return their number
+   * The buffer must have room for getMaxCandidates moves after the offset
+   *
+   * @param engine (GameEngine) the engine
+   * @param buffer (int[]) the buffer
+   * @param offset (int) index of the first move in the buffer
+   * @return (int)
+   */
+  int add(GameEngine engine, int[] buffer, int offset) {
+    var rules = engine.getRules();
+    int player = engine.getCurrentPlayer();
+    int size = offset;
+    if (engine.isLeatherPhase()) {
+      int nb = scorer.bestPlacements(engine, player, rules.getLeatherPatch().id(), bestPlacements, bestScores);
+      for (int i = 0; i < nb; i++) {
+        buffer[size++] = Move.leather(bestPlacements[i]);
+      }
+      return size - offset;
+    }
+    buffer[size++] = Move.PASS_MOVE;
+    int nbSlots = Math.min(GameRules.NB_NEXT_PATCHES, engine.getRingSize());
+    for (int slot = 0; slot < nbSlots; slot++) {
+      var patch = rules.getPatch(engine.getNextPatchId(slot));
+      if (patch.price() <= engine.getMoney(player)) {
+        int nb = scorer.bestPlacements(engine, player, patch.id(), bestPlacements, bestScores);
+        for (int i = 0; i < nb; i++) {
+          buffer[size++] = Move.buy(slot, bestPlacements[i]);
+        }
+      }
+    }
+    return size - offset;
+  }
+}
@@ -0,0 +1,81 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+
+import java.util.Objects;
+
+/**
+ * Class for a bot that plays the end of the game perfectly with an endgame solver (see EndgameSolver)
+ * and the rest of the game with another bot
+ */
+public final class EndgameBot implements Bot {
+  private final Bot bot;
+  private final EndgameSolver solver;
+
+  /**
+   * Init an endgame bot
+   *
+   * @param bot    (Bot) bot of the moves before the endgame
+   * @param solver (EndgameSolver) solver of the endgame
+   */
+  public EndgameBot(Bot bot, EndgameSolver solver) {
+    this.bot = Objects.requireNonNull(bot);
+    this.solver = Objects.requireNonNull(solver);
+  }
+
+  /**
+   * Init an endgame bot with the default endgame solver
+   *
+   * @param bot (Bot) bot of the moves before the endgame
+   */
+  public EndgameBot(Bot bot) {
+    this(bot, new EndgameSolver());
+  }
+
+  /**
+   * Return the move of the solver in the endgame, the move of the other bot before or when the solver
+   * exceeds its budget
+   *
+   * @param engine (GameEngine) the engine, not finished
+   * @return (int)
+   */
+  @Override
+  public int chooseMove(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    if (engine.isFinished()) {
+      throw new IllegalStateException("The game is finished");
+    }
+    if (solver.isEndgame(engine) && solver.solve(engine).isPresent()) {
+      return solver.getBestMove();
+    }
+    return bot.chooseMove(engine);
+  }
+
+  /**
+   * Return the bot of the moves before the endgame
+   *
+   * @return (Bot)
+   */
+  public Bot getBot() {
+    return bot;
+  }
+
+  /**
+   * Return the solver of the endgame
+   *
+   * @return (EndgameSolver)
+   */
+  public EndgameSolver getSolver() {
+    return solver;
+  }
+
+  /**
+   * Return the name of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String getName() {
+    return bot.getName() + " + endgame";
+  }
+}
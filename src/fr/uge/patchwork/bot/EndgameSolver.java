@@ -0,0 +1,378 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.Move;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Class for the exact solver of the end of a game
+ * The solver searches every legal move until the end of the game with alpha-beta and a transposition table,
+ * and returns the exact difference between the final scores (Player.getScore plus the special tile)
+ * Once a move brings its player to the end of the time track, the player never plays again, so the
+ * placements of the patch only differ by the special tile: the solver keeps one of them, one that
+ * completes the square of the special tile if there is one
+ * A purchase that finds a leather patch on its way to the end is the exception: the leather patch is placed
+ * after it and can complete the square, so every placement of the patch is searched
+ * The purchases are searched by the value of the patch for its price, then by the contacts of their
+ * placements (see PlacementScorer), and the search gives up after a budget of nodes
+ */
+public final class EndgameSolver {
+  /**
+   * Default distance of the time tokens to the end of the time track where the endgame starts
+   */
+  public static final int DEFAULT_DISTANCE = 6;
+  /**
+   * Default maximum number of nodes of a solve
+   */
+  public static final long DEFAULT_MAX_NODES = 1_000_000;
+  /**
+   * Default memory of the transposition table in megabytes
+   */
+  public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+  private static final int INFINITY = Short.MAX_VALUE;
+  private static final int NO_MOVE = -1;
+  private static final int EXACT_DEPTH = 0xFF;
+  private static final int CONTACTS_RANGE = 1 << 8;
+
+  private final int distance;
+  private final long maxNodes;
+  private final TranspositionTable table;
+  private int[][] moves = new int[0][];
+  private int[][] orders = new int[0][];
+  private PlacementScorer scorer;
+  private GameEngine engine;
+  private boolean aborted;
+  private int bestMove;
+  private long nbNodes;
+
+  /**
+   * Init an endgame solver
+   *
+   * @param distance (int) distance of the time tokens to the end of the time track where the endgame starts
+   * @param maxNodes (long) maximum number of nodes of a solve, 0 for no limit
+   * @param table    (TranspositionTable) transposition table of the solver
+   */
+  public EndgameSolver(int distance, long maxNodes, TranspositionTable table) {
+    Objects.requireNonNull(table);
+    if (distance < 0) {
+      throw new IllegalArgumentException("The distance must be positive");
+    }
+    if (maxNodes < 0) {
+      throw new IllegalArgumentException("The maximum number of nodes must be positive");
+    }
+    this.distance = distance;
+    this.maxNodes = maxNodes;
+    this.table = table;
+  }
+
+  /**
+   * Init an endgame solver with the default distance, budget and transposition table
+   */
+  public EndgameSolver() {
+    this(DEFAULT_DISTANCE, DEFAULT_MAX_NODES,
+            TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+  }
+
+  /**
+   * Return true if both time tokens of an engine are within the distance of the end of the time track
+   *
+   * @param engine (GameEngine) the engine
+   * @return (boolean)
+   */
+  public boolean isEndgame(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    int end = engine.getRules().getTrackSize() - 1;
+    return end - engine.getPosition(0) <= distance && end - engine.getPosition(1) <= distance;
+  }
+
+  /**
+   * Return the exact difference between the final score of the current player of an engine and the
+   * final score of the other player, when both play perfectly, empty if the budget of nodes is exceeded
+   *
+   * @param engine (GameEngine) the engine
+   * @return (OptionalInt)
+   */
+  public OptionalInt solve(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    this.engine = engine.copy();
+    var rules = engine.getRules();
+    if (scorer == null || scorer.getRules() != rules) {
+      scorer = new PlacementScorer(rules);
+    }
+    table.newSearch();
+    nbNodes = 0;
+    aborted = false;
+    bestMove = NO_MOVE;
+    int value = negamax(0, -INFINITY, INFINITY);
+    if (aborted) {
+      bestMove = NO_MOVE;
+      return OptionalInt.empty();
+    }
+    return OptionalInt.of(value);
+  }
+
+  /**
+   * Return the best packed move found by the last solve, -1 if the game was finished or the budget exceeded
+   *
+   * @return (int)
+   */
+  public int getBestMove() {
+    return bestMove;
+  }
+
+  /**
+   * Return the number of nodes of the last solve
+   *
+   * @return (long)
+   */
+  public long getNbNodes() {
+    return nbNodes;
+  }
+
+  /**
+   * Return the exact value of the state of the engine for its current player
+   *
+   * @param ply   (int) distance to the root
+   * @param alpha (int) lower bound of the window
+   * @param beta  (int) upper bound of the window
+   * @return (int)
+   */
+  private int negamax(int ply, int alpha, int beta) {
+    nbNodes++;
+    if (maxNodes != 0 && nbNodes > maxNodes) {
+      aborted = true;
+      return 0;
+    }
+    int player = engine.getCurrentPlayer();
+    if (engine.isFinished()) {
+      return engine.getFinalScore(player) - engine.getFinalScore(1 - player);
+    }
+    long hash = engine.getHash();
+    int tableMove = NO_MOVE;
+    long data = table.probe(hash);
+    if (data != TranspositionTable.MISS) {
+      tableMove = TranspositionTable.getMove(data);
+      if (ply > 0 && TranspositionTable.getDepth(data) == EXACT_DEPTH) {
+        int value = TranspositionTable.getValue(data);
+        switch (TranspositionTable.getBound(data)) {
+          case EXACT -> {
+            return value;
+          }
+          case LOWER -> {
+            if (value >= beta) {
+              return value;
+            }
+            alpha = Math.max(alpha, value);
+          }
+          case UPPER -> {
+            if (value <= alpha) {
+              return value;
+            }
+            beta = Math.min(beta, value);
+          }
+        }
+      }
+    }
+    int nbMoves = generate(ply, tableMove);
+    var plyMoves = moves[ply];
+    var plyOrders = orders[ply];
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int nodeBestMove = plyMoves[0];
+    for (int i = 0; i < nbMoves; i++) {
+      int move = nextMove(plyMoves, plyOrders, i, nbMoves);
+      engine.apply(move);
+      int value = engine.getCurrentPlayer() == player
+              ? negamax(ply + 1, alpha, beta)
+              : -negamax(ply + 1, -beta, -alpha);
+      engine.undo();
+      if (aborted) {
+        return 0;
+      }
+      if (value > best) {
+        best = value;
+        nodeBestMove = move;
+      }
+      alpha = Math.max(alpha, value);
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    if (ply == 0) {
+      bestMove = nodeBestMove;
+    }
+    var bound = best <= originalAlpha ? TranspositionTable.Bound.UPPER
+            : best >= beta ? TranspositionTable.Bound.LOWER
+            : TranspositionTable.Bound.EXACT;
+    table.store(hash, best, EXACT_DEPTH, bound, nodeBestMove);
+    return best;
+  }
+
+  /**
+   * Write the moves of the current player in the buffer of a ply with their orders, the move of the table
+   * first, and return their number
+   *
+   * @param ply       (int) distance to the root
+   * @param tableMove (int) move of the transposition table
+   * @return (int)
+   */
+  private int generate(int ply, int tableMove) {
+    if (ply == moves.length) {
+      moves = Arrays.copyOf(moves, Math.max(16, 2 * ply));
+      orders = Arrays.copyOf(orders, moves.length);
+    }
+    var rules = engine.getRules();
+    int player = engine.getCurrentPlayer();
+    int end = rules.getTrackSize() - 1;
+    int position = engine.getPosition(player);
+    int size = 0;
+    if (engine.isLeatherPhase()) {
+      size = addPlacements(ply, size, player, rules.getLeatherPatch().id(), -1, 0, position == end);
+    } else {
+      size = add(ply, size, Move.PASS_MOVE, 0);
+      int buttonsLeft = rules.countButtons(position + 1, end);
+      int nbSlots = Math.min(GameRules.NB_NEXT_PATCHES, engine.getRingSize());
+      for (int slot = 0; slot < nbSlots; slot++) {
+        var patch = rules.getPatch(engine.getNextPatchId(slot));
+        if (patch.price() <= engine.getMoney(player)) {
+          int value = 2 * patch.getNumberOfBlocks() + patch.earnings() * buttonsLeft - patch.price();
+          boolean last = position + patch.forwardBlocks() >= end
+                  && !(rules.placesLeatherPatches() && findsLeatherPatch(position, end));
+          size = addPlacements(ply, size, player, patch.id(), slot, value, last);
+        }
+      }
+    }
+    var plyMoves = moves[ply];
+    for (int i = 0; i < size; i++) {
+      if (plyMoves[i] == tableMove) {
+        orders[ply][i] = Integer.MAX_VALUE;
+        break;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Return true if a time token moved between two positions of the time track (both included) finds a
+   * leather patch left, like GameEngine does
+   *
+   * @param from (int) first position
+   * @param to   (int) last position
+   * @return (boolean)
+   */
+  private boolean findsLeatherPatch(int from, int to) {
+    var rules = engine.getRules();
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      int position = rules.getLeatherPosition(i);
+      if (position > to) {
+        return false;
+      }
+      if (position >= from && engine.hasLeatherPatch(i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Add the moves of the placements of a patch that fit on the quilt board of a player and return the
+   * new number of moves of the ply
+   * When the player doesn't play again, only one placement is added, one that completes the square of
+   * the special tile if there is one
+   *
+   * @param ply    (int) distance to the root
+   * @param size   (int) number of moves of the ply
+   * @param player (int) index of the player
+   * @param id     (int) id of the patch
+   * @param slot   (int) slot of the patch after the neutral token, -1 for the leather patch
+   * @param value  (int) value of the patch for its price
+   * @param last   (boolean) true if the player doesn't play again and places no leather patch after the move
+   * @return (int)
+   */
+  private int addPlacements(int ply, int size, int player, int id, int slot, int value, boolean last) {
+    var rules = engine.getRules();
+    var placementTable = rules.getPlacementTable(id);
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    boolean tileLeft = rules.hasSpecialTile() && engine.getSpecialTileOwner() < 0;
+    int chosen = -1;
+    for (int i = 0; i < placementTable.size(); i++) {
+      long maskLow = placementTable.getLowMask(i);
+      long maskHigh = placementTable.getHighMask(i);
+      if ((low & maskLow) != 0 || (high & maskHigh) != 0) {
+        continue;
+      }
+      if (!last) {
+        int order = value * CONTACTS_RANGE + scorer.score(engine, player, placementTable, i);
+        size = add(ply, size, slot < 0 ? Move.leather(i) : Move.buy(slot, i), order);
+        continue;
+      }
+      if (chosen < 0) {
+        chosen = i;
+      }
+      if (!tileLeft) {
+        break;
+      }
+      if (rules.containsSpecialTile(low | maskLow, high | maskHigh)) {
+        chosen = i;
+        break;
+      }
+    }
+    if (chosen >= 0) {
+      size = add(ply, size, slot < 0 ? Move.leather(chosen) : Move.buy(slot, chosen), value * CONTACTS_RANGE);
+    }
+    return size;
+  }
+
+  /**
+   * Add a move to the buffer of a ply and return the new number of moves of the ply
+   *
+   * @param ply   (int) distance to the root
+   * @param size  (int) number of moves of the ply
+   * @param move  (int) packed move
+   * @param order (int) order of the move, the greatest first
+   * @return (int)
+   */
+  private int add(int ply, int size, int move, int order) {
+    if (moves[ply] == null) {
+      moves[ply] = new int[64];
+      orders[ply] = new int[64];
+    } else if (size == moves[ply].length) {
+      moves[ply] = Arrays.copyOf(moves[ply], 2 * size);
+      orders[ply] = Arrays.copyOf(orders[ply], 2 * size);
+    }
+    moves[ply][size] = move;
+    orders[ply][size] = order;
+    return size + 1;
+  }
+
+  /**
+   * Swap the move with the best order among the moves left to the given index and return it
+   *
+   * @param plyMoves  (int[]) moves of the ply
+   * @param plyOrders (int[]) orders of the moves of the ply
+   * @param index     (int) index of the next move
+   * @param nbMoves   (int) number of moves of the ply
+   * @return (int)
+   */
+  private static int nextMove(int[] plyMoves, int[] plyOrders, int index, int nbMoves) {
+    int best = index;
+    for (int i = index + 1; i < nbMoves; i++) {
+      if (plyOrders[i] > plyOrders[best]) {
+        best = i;
+      }
+    }
+    int move = plyMoves[best];
+    int order = plyOrders[best];
+    plyMoves[best] = plyMoves[index];
+    plyOrders[best] = plyOrders[index];
+    plyMoves[index] = move;
+    plyOrders[index] = order;
+    return move;
+  }
+}
@@ -0,0 +1,19 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+
+/**
+ * Interface for the static evaluation of the positions by the bots
+ */
+@FunctionalInterface
+public interface Evaluator {
+  /**
+   * Return the value of the state of an engine for a player: positive if the player is ahead,
+   * in points of final score
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  int evaluate(GameEngine engine, int player);
+}
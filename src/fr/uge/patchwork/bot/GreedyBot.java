@@ -0,0 +1,73 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+
+import java.util.Objects;
+
+/**
+ * Class for a bot that plays the candidate move (see CandidateMoves) after which the evaluator gives
+ * the best value, without searching further
+ */
+public final class GreedyBot implements Bot {
+  private final Evaluator evaluator;
+  private final CandidateMoves candidateMoves;
+  private final int[] moves;
+
+  /**
+   * Init a greedy bot
+   *
+   * @param evaluator          (Evaluator) static evaluation of the positions
+   * @param placementsPerPatch (int) number of placements of a patch in the candidate moves
+   */
+  public GreedyBot(Evaluator evaluator, int placementsPerPatch) {
+    this.evaluator = Objects.requireNonNull(evaluator);
+    this.candidateMoves = new CandidateMoves(placementsPerPatch);
+    this.moves = new int[candidateMoves.getMaxCandidates()];
+  }
+
+  /**
+   * Init a greedy bot with the default evaluator and placements per patch
+   */
+  public GreedyBot() {
+    this(new HeuristicEvaluator(), MctsBot.DEFAULT_PLACEMENTS_PER_PATCH);
+  }
+
+  /**
+   * Return the candidate move with the best value for the current player once applied
+   *
+   * @param engine (GameEngine) the engine, not finished
+   * @return (int)
+   */
+  @Override
+  public int chooseMove(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    if (engine.isFinished()) {
+      throw new IllegalStateException("The game is finished");
+    }
+    candidateMoves.prepare(engine.getRules());
+    int player = engine.getCurrentPlayer();
+    int nb = candidateMoves.add(engine, moves, 0);
+    int best = moves[0];
+    int bestValue = Integer.MIN_VALUE;
+    for (int i = 0; i < nb; i++) {
+      engine.apply(moves[i]);
+      int value = evaluator.evaluate(engine, player);
+      engine.undo();
+      if (value > bestValue) {
+        best = moves[i];
+        bestValue = value;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Return the name of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String getName() {
+    return "Greedy";
+  }
+}
@@ -0,0 +1,230 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Class for the static evaluation of the positions by a weighted sum of features, the features of the
+ * player minus the features of the other player
+ * The features of the quilt boards are computed from the bits of the squares with shifts and bit counts,
+ * with the masks of the edges computed once for the rules: an evaluation allocates nothing
+ */
+public final class HeuristicEvaluator implements Evaluator {
+  private final Weights weights;
+  private Masks masks;
+
+  /**
+   * Record for the weights of the features of a player
+   *
+   * @param money        weight of the buttons of the player
+   * @param income       weight of the buttons still to earn: the earnings of the quilt board times the
+   *                     buttons left to cross
+   * @param track        weight of the squares of the time track left to the player
+   * @param emptySquares weight of the empty squares of the quilt board
+   * @param holes        weight of the empty squares surrounded by filled squares or the edges
+   * @param specialTile  weight of the earnings of the special tile, once won
+   * @param proximity    weight of the earnings of the special tile times the filled part of the best
+   *                     square of its size, while nobody has won it
+   * @param buttons      weight of the buttons left to cross on the time track
+   */
+  public record Weights(double money, double income, double track, double emptySquares, double holes,
+                        double specialTile, double proximity, double buttons) {
+    /**
+     * Default weights, tuned by self-play of alpha-beta bots searching 3 moves deep
+     */
+    public static final Weights DEFAULT = new Weights(1, 1, 1, -0.5, -1, 1, 0.5, 0);
+
+    /**
+     * Load weights from a file, the weights missing in the file keep their default value
+     * FORMAT:
+     * - each line represents a weight
+     * - name:value (name of a component of the record)
+     *
+     * @param path (Path) path to the file
+     * @return (Weights)
+     * @throws IOException if the file cannot be read or is invalid
+     */
+    public static Weights load(Path path) throws IOException {
+      Objects.requireNonNull(path);
+      var values = new double[]{DEFAULT.money, DEFAULT.income, DEFAULT.track, DEFAULT.emptySquares,
+              DEFAULT.holes, DEFAULT.specialTile, DEFAULT.proximity, DEFAULT.buttons};
+      for (var line : Files.readAllLines(path)) {
+        if (line.isBlank()) {
+          continue;
+        }
+        var tokens = line.split(":");
+        if (tokens.length != 2) {
+          throw new IOException("Invalid line in weights file: " + line);
+        }
+        int index = switch (tokens[0].strip()) {
+          case "money" -> 0;
+          case "income" -> 1;
+          case "track" -> 2;
+          case "emptySquares" -> 3;
+          case "holes" -> 4;
+          case "specialTile" -> 5;
+          case "proximity" -> 6;
+          case "buttons" -> 7;
+          default -> throw new IOException("Invalid weight name: " + tokens[0]);
+        };
+        try {
+          values[index] = Double.parseDouble(tokens[1].strip());
+        } catch (NumberFormatException e) {
+          throw new IOException("Invalid weight value: " + tokens[1], e);
+        }
+      }
+      return new Weights(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7]);
+    }
+  }
+
+  /**
+   * Class for the masks of the quilt boards of a game
+   */
+  private static final class Masks {
+    private final GameRules rules;
+    private final int width;
+    private final long boardLow;
+    private final long boardHigh;
+    private final long notFirstColumnLow;
+    private final long notFirstColumnHigh;
+    private final long notLastColumnLow;
+    private final long notLastColumnHigh;
+
+    /**
+     * Init the masks of the quilt boards of a game
+     *
+     * @param rules (GameRules) rules of the game
+     */
+    private Masks(GameRules rules) {
+      this.rules = rules;
+      this.width = rules.getQuiltWidth();
+      if (width >= Long.SIZE) {
+        throw new IllegalArgumentException("The quilt boards must be less than " + Long.SIZE + " squares wide");
+      }
+      long[] board = new long[2];
+      long[] firstColumn = new long[2];
+      long[] lastColumn = new long[2];
+      for (int y = 0; y < rules.getQuiltHeight(); y++) {
+        for (int x = 0; x < width; x++) {
+          int index = y * width + x;
+          board[index / Long.SIZE] |= 1L << index;
+          if (x == 0) {
+            firstColumn[index / Long.SIZE] |= 1L << index;
+          }
+          if (x == width - 1) {
+            lastColumn[index / Long.SIZE] |= 1L << index;
+          }
+        }
+      }
+      this.boardLow = board[0];
+      this.boardHigh = board[1];
+      this.notFirstColumnLow = ~firstColumn[0];
+      this.notFirstColumnHigh = ~firstColumn[1];
+      this.notLastColumnLow = ~lastColumn[0];
+      this.notLastColumnHigh = ~lastColumn[1];
+    }
+  }
+
+  /**
+   * Init a heuristic evaluator
+   *
+   * @param weights (Weights) weights of the features
+   */
+  public HeuristicEvaluator(Weights weights) {
+    this.weights = Objects.requireNonNull(weights);
+  }
+
+  /**
+   * Init a heuristic evaluator with the default weights
+   */
+  public HeuristicEvaluator() {
+    this(Weights.DEFAULT);
+  }
+
+  /**
+   * Return the weights of the features
+   *
+   * @return (Weights)
+   */
+  public Weights getWeights() {
+    return weights;
+  }
+
+  /**
+   * Return the weighted features of the player minus the weighted features of the other player, rounded
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  @Override
+  public int evaluate(GameEngine engine, int player) {
+    var masks = this.masks;
+    if (masks == null || masks.rules != engine.getRules()) {
+      masks = new Masks(engine.getRules());
+      this.masks = masks;
+    }
+    return (int) Math.round(features(engine, player, masks) - features(engine, 1 - player, masks));
+  }
+
+  /**
+   * Return the weighted features of a player
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @param masks  (Masks) masks of the quilt boards
+   * @return (double)
+   */
+  private double features(GameEngine engine, int player, Masks masks) {
+    var rules = masks.rules;
+    int end = rules.getTrackSize() - 1;
+    int position = engine.getPosition(player);
+    int buttonsLeft = rules.countButtons(position + 1, end);
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    double value = weights.money * engine.getMoney(player)
+            + weights.income * engine.getEarnings(player) * buttonsLeft
+            + weights.track * (end - position)
+            + weights.emptySquares * engine.getNbEmptySquares(player)
+            + weights.holes * countHoles(low, high, masks)
+            + weights.buttons * buttonsLeft;
+    int owner = engine.getSpecialTileOwner();
+    if (owner == player) {
+      value += weights.specialTile * rules.getSpecialTileEarnings();
+    } else if (owner < 0 && rules.hasSpecialTile()) {
+      int size = rules.getSpecialTileSize() * rules.getSpecialTileSize();
+      int missing = rules.countMissingSpecialTileSquares(low, high);
+      value += weights.proximity * rules.getSpecialTileEarnings() * (size - missing) / size;
+    }
+    return value;
+  }
+
+  /**
+   * Return the number of empty squares of a quilt board with no empty square next to them
+   *
+   * @param low   (long) low long of the filled squares
+   * @param high  (long) high long of the filled squares
+   * @param masks (Masks) masks of the quilt boards
+   * @return (int)
+   */
+  private static int countHoles(long low, long high, Masks masks) {
+    int width = masks.width;
+    long emptyLow = ~low & masks.boardLow;
+    long emptyHigh = ~high & masks.boardHigh;
+    // a square has an empty square on its east side if the square after it is empty
+    long nextToEmptyLow = (emptyLow >>> 1 | emptyHigh << 63) & masks.notLastColumnLow
+            | emptyLow << 1 & masks.notFirstColumnLow
+            | emptyLow >>> width | emptyHigh << (Long.SIZE - width)
+            | emptyLow << width;
+    long nextToEmptyHigh = emptyHigh >>> 1 & masks.notLastColumnHigh
+            | (emptyHigh << 1 | emptyLow >>> 63) & masks.notFirstColumnHigh
+            | emptyHigh >>> width
+            | emptyHigh << width | emptyLow >>> (Long.SIZE - width);
+    return Long.bitCount(emptyLow & ~nextToEmptyLow) + Long.bitCount(emptyHigh & ~nextToEmptyHigh);
+  }
+}
@@ -0,0 +1,360 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class for a bot that chooses its moves with a Monte Carlo tree search (UCT)
+ * The search stops when the number of iterations or the time of the budget is reached
+ * With several threads, the search is spread with root or tree parallelization (see Parallelization)
+ * and the iterations of the budget are shared by the threads, which claim them by blocks
+ */
+public final class MctsBot implements Bot, AutoCloseable {
+  /**
+   * Default exploration constant of UCT
+   */
+  public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+  /**
+   * Default number of placements of a patch in the candidate moves of a node
+   */
+  public static final int DEFAULT_PLACEMENTS_PER_PATCH = 4;
+  /**
+   * Number of nodes of the shared tree of the tree parallelization
+   */
+  public static final int TREE_CAPACITY = 1 << 20;
+  /**
+   * Number of iterations claimed at once by a thread, the deadline is checked once per block
+   * (but not before the first block of a thread, so a search with a time budget always has a move)
+   */
+  private static final int ITERATION_BLOCK = 64;
+
+  private final double exploration;
+  private final PlayoutPolicy policy;
+  private final int maxIterations;
+  private final long maxMillis;
+  private final int placementsPerPatch;
+  private final Parallelization parallelization;
+  private final MctsSearch[] searches;
+  private final SharedTree tree;
+  private final SharedTree.Worker[] workers;
+  private final ExecutorService executor;
+  private long nbPlayouts;
+
+  /**
+   * Init a MCTS bot
+   *
+   * @param exploration        (double) exploration constant of UCT
+   * @param policy             (PlayoutPolicy) policy of the playouts
+   * @param maxIterations      (int) maximum number of iterations of a search, 0 for no limit
+   * @param maxMillis          (long) maximum time of a search in milliseconds, 0 for no limit
+   * @param placementsPerPatch (int) number of placements of a patch in the candidate moves of a node
+   * @param parallelization    (Parallelization) way the search is spread over the threads
+   * @param nbThreads          (int) number of threads of the search
+   * @param seed               (long) seed of the random generator of the bot
+   */
+  public MctsBot(double exploration, PlayoutPolicy policy, int maxIterations, long maxMillis, int placementsPerPatch,
+                 Parallelization parallelization, int nbThreads, long seed) {
+    Objects.requireNonNull(policy);
+    Objects.requireNonNull(parallelization);
+    if (exploration < 0) {
+      throw new IllegalArgumentException("The exploration constant must be positive");
+    }
+    if (maxIterations < 0 || maxMillis < 0 || (maxIterations == 0 && maxMillis == 0)) {
+      throw new IllegalArgumentException("The budget must be positive and limited");
+    }
+    if (placementsPerPatch <= 0) {
+      throw new IllegalArgumentException("The number of placements per patch must be positive");
+    }
+    if (nbThreads <= 0) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    this.exploration = exploration;
+    this.policy = policy;
+    this.maxIterations = maxIterations;
+    this.maxMillis = maxMillis;
+    this.placementsPerPatch = placementsPerPatch;
+    this.parallelization = parallelization;
+    var random = new SplittableRandom(seed);
+    if (parallelization == Parallelization.ROOT) {
+      this.searches = new MctsSearch[nbThreads];
+      for (int i = 0; i < nbThreads; i++) {
+        searches[i] = new MctsSearch(exploration, new Playouts(policy, placementsPerPatch, random.split()));
+      }
+      this.tree = null;
+      this.workers = null;
+    } else {
+      this.searches = null;
+      this.tree = new SharedTree(exploration, TREE_CAPACITY);
+      this.workers = new SharedTree.Worker[nbThreads];
+      for (int i = 0; i < nbThreads; i++) {
+        workers[i] = tree.new Worker(new Playouts(policy, placementsPerPatch, random.split()));
+      }
+    }
+    this.executor = nbThreads == 1 ? null : Executors.newFixedThreadPool(nbThreads, runnable -> {
+      var thread = new Thread(runnable, "mcts");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Init a single thread MCTS bot
+   *
+   * @param exploration        (double) exploration constant of UCT
+   * @param policy             (PlayoutPolicy) policy of the playouts
+   * @param maxIterations      (int) maximum number of iterations of a search, 0 for no limit
+   * @param maxMillis          (long) maximum time of a search in milliseconds, 0 for no limit
+   * @param placementsPerPatch (int) number of placements of a patch in the candidate moves of a node
+   * @param seed               (long) seed of the random generator of the bot
+   */
+  public MctsBot(double exploration, PlayoutPolicy policy, int maxIterations, long maxMillis, int placementsPerPatch, long seed) {
+    this(exploration, policy, maxIterations, maxMillis, placementsPerPatch, Parallelization.ROOT, 1, seed);
+  }
+
+  /**
+   * Init a single thread MCTS bot with the default exploration constant and placements per patch, and greedy playouts
+   *
+   * @param maxIterations (int) maximum number of iterations of a search, 0 for no limit
+   * @param maxMillis     (long) maximum time of a search in milliseconds, 0 for no limit
+   * @param seed          (long) seed of the random generator of the bot
+   */
+  public MctsBot(int maxIterations, long maxMillis, long seed) {
+    this(DEFAULT_EXPLORATION, PlayoutPolicy.GREEDY, maxIterations, maxMillis, DEFAULT_PLACEMENTS_PER_PATCH, seed);
+  }
+
+  /**
+   * Return the packed move with the most visits after the search
+   *
+   * @param engine (GameEngine) the engine, not finished
+   * @return (int)
+   */
+  @Override
+  public int chooseMove(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    if (engine.isFinished()) {
+      throw new IllegalStateException("The game is finished");
+    }
+    long deadline = maxMillis == 0 ? Long.MAX_VALUE : System.nanoTime() + maxMillis * 1_000_000;
+    var iterations = new AtomicInteger();
+    return parallelization == Parallelization.ROOT
+            ? rootSearch(engine, iterations, deadline)
+            : treeSearch(engine, iterations, deadline);
+  }
+
+  /**
+   * Class for the iterations of the budget claimed by one thread of a search
+   * The thread claims a block of iterations from the shared counter, then counts them alone,
+   * so the counter is only touched once per block
+   */
+  private final class Iterations {
+    private final AtomicInteger claimed;
+    private final long deadline;
+    private int next;
+    private int end;
+
+    /**
+     * Init the iterations of a thread, none claimed yet
+     *
+     * @param claimed  (AtomicInteger) number of iterations claimed by the threads
+     * @param deadline (long) end of the search (System.nanoTime)
+     */
+    private Iterations(AtomicInteger claimed, long deadline) {
+      this.claimed = claimed;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Return true if the budget of the search allows another iteration, and count it
+     *
+     * @return (boolean)
+     */
+    private boolean next() {
+      if (next == end) {
+        if (end > 0 && System.nanoTime() >= deadline) {
+          return false;
+        }
+        if (maxIterations == 0) {
+          next = 0;
+          end = ITERATION_BLOCK;
+        } else {
+          next = claimed.getAndAdd(ITERATION_BLOCK);
+          end = Math.min(next + ITERATION_BLOCK, maxIterations);
+          if (next >= end) {
+            return false;
+          }
+        }
+      }
+      next++;
+      return true;
+    }
+  }
+
+  /**
+   * Run a task on each thread of the bot and wait for them
+   *
+   * @param tasks (ArrayList < Callable < Void > >) one task per thread
+   */
+  private void runAll(ArrayList<Callable<Void>> tasks) {
+    if (executor == null) {
+      try {
+        tasks.get(0).call();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      return;
+    }
+    try {
+      for (var future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Search with one tree per thread, then add the visits of the moves of the roots
+   * A thread which claims no iteration leaves its root unexpanded, so its search is ignored
+   *
+   * @param engine     (GameEngine) the engine
+   * @param iterations (AtomicInteger) number of iterations claimed by the threads
+   * @param deadline   (long) end of the search (System.nanoTime)
+   * @return (int) the packed move with the most visits
+   */
+  private int rootSearch(GameEngine engine, AtomicInteger iterations, long deadline) {
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var search : searches) {
+      tasks.add(() -> {
+        var budget = new Iterations(iterations, deadline);
+        search.reset(engine);
+        while (budget.next()) {
+          search.iterate();
+          if (search.getNbRootCandidates() == 1) {
+            break;
+          }
+        }
+        return null;
+      });
+    }
+    runAll(tasks);
+    for (var search : searches) {
+      nbPlayouts += search.getNbPlayouts();
+    }
+    if (searches.length == 1) {
+      return searches[0].getBestMove();
+    }
+    var reference = searches[0];
+    for (var search : searches) {
+      if (search.getNbRootCandidates() > 0) {
+        reference = search;
+        break;
+      }
+    }
+    int best = -1;
+    long bestVisits = -1;
+    for (int i = 0; i < reference.getNbRootCandidates(); i++) {
+      int move = reference.getRootMove(i);
+      long visits = 0;
+      for (var search : searches) {
+        visits += search.getRootVisits(move);
+      }
+      if (visits > bestVisits) {
+        best = move;
+        bestVisits = visits;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Search with one tree shared by the threads
+   *
+   * @param engine     (GameEngine) the engine
+   * @param iterations (AtomicInteger) number of iterations claimed by the threads
+   * @param deadline   (long) end of the search (System.nanoTime)
+   * @return (int) the packed move with the most visits
+   */
+  private int treeSearch(GameEngine engine, AtomicInteger iterations, long deadline) {
+    tree.reset(engine);
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var worker : workers) {
+      tasks.add(() -> {
+        var budget = new Iterations(iterations, deadline);
+        worker.start();
+        while (budget.next()) {
+          worker.iterate();
+          if (tree.getNbRootCandidates() == 1) {
+            break;
+          }
+        }
+        return null;
+      });
+    }
+    runAll(tasks);
+    nbPlayouts += tree.getNbPlayouts();
+    return tree.getBestMove();
+  }
+
+  /**
+   * Return the number of playouts of every search of the bot
+   *
+   * @return (long)
+   */
+  public long getNbPlayouts() {
+    return nbPlayouts;
+  }
+
+  /**
+   * Return the name of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String getName() {
+    return "MCTS";
+  }
+
+  /**
+   * Stop the threads of the bot
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Return a string representation of the bot
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return "MCTS (exploration: " + exploration + ", playouts: " + policy + ", iterations: " + maxIterations
+            + ", time: " + maxMillis + " ms, placements per patch: " + placementsPerPatch
+            + ", parallelization: " + parallelization + " on " + searchThreads() + " threads)";
+  }
+
+  /**
+   * Return the number of threads of the search
+   *
+   * @return (int)
+   */
+  private int searchThreads() {
+    return searches != null ? searches.length : workers.length;
+  }
+}
@@ -0,0 +1,266 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.Move;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for the tree of a Monte Carlo tree search, grown by one search thread
+ * The nodes are stored in parallel arrays and their candidate moves (see Playouts) in a shared pool,
+ * so an iteration only allocates when the arrays grow
+ */
+final class MctsSearch {
+  private final double exploration;
+  private final Playouts playouts;
+  private GameEngine engine;
+
+  private int[] moves = new int[1024];
+  private int[] movers = new int[1024];
+  private int[] firstChildren = new int[1024];
+  private int[] nextSiblings = new int[1024];
+  private int[] candidatesStarts = new int[1024];
+  private int[] nbCandidates = new int[1024];
+  private int[] nbExpanded = new int[1024];
+  private int[] visits = new int[1024];
+  private double[] wins = new double[1024];
+  private int nbNodes;
+  private int[] candidates = new int[4096];
+  private int nbCandidatesInPool;
+  private int[] path = new int[256];
+  private long nbPlayouts;
+
+  /**
+   * Init a search
+   *
+   * @param exploration (double) exploration constant of UCT
+   * @param playouts    (Playouts) candidate moves and playouts of the search thread
+   */
+  MctsSearch(double exploration, Playouts playouts) {
+    this.exploration = exploration;
+    this.playouts = Objects.requireNonNull(playouts);
+  }
+
+  /**
+   * Start a new tree on the state of an engine
+   *
+   * @param root (GameEngine) the engine, copied
+   */
+  void reset(GameEngine root) {
+    engine = root.copy();
+    playouts.prepare(engine.getRules());
+    nbNodes = 0;
+    nbCandidatesInPool = 0;
+    nbPlayouts = 0;
+    addNode(Move.PASS_MOVE, -1);
+  }
+
+  /**
+   * Add a node to the tree and return its index
+   *
+   * @param move  (int) packed move that leads to the node
+   * @param mover (int) index of the player who plays the move
+   * @return (int)
+   */
+  private int addNode(int move, int mover) {
+    if (nbNodes == moves.length) {
+      int length = 2 * nbNodes;
+      moves = Arrays.copyOf(moves, length);
+      movers = Arrays.copyOf(movers, length);
+      firstChildren = Arrays.copyOf(firstChildren, length);
+      nextSiblings = Arrays.copyOf(nextSiblings, length);
+      candidatesStarts = Arrays.copyOf(candidatesStarts, length);
+      nbCandidates = Arrays.copyOf(nbCandidates, length);
+      nbExpanded = Arrays.copyOf(nbExpanded, length);
+      visits = Arrays.copyOf(visits, length);
+      wins = Arrays.copyOf(wins, length);
+    }
+    int node = nbNodes++;
+    moves[node] = move;
+    movers[node] = mover;
+    firstChildren[node] = -1;
+    nextSiblings[node] = -1;
+    nbCandidates[node] = -1;
+    nbExpanded[node] = 0;
+    visits[node] = 0;
+    wins[node] = 0;
+    return node;
+  }
+
+  /**
+   * Run one iteration: selection, expansion, playout and backpropagation
+   */
+  void iterate() {
+    int node = 0;
+    int depth = 0;
+    path[depth++] = node;
+    while (!engine.isFinished()) {
+      if (nbCandidates[node] < 0) {
+        addCandidates(node);
+      }
+      int child = nbExpanded[node] < nbCandidates[node] ? expand(node) : select(node);
+      engine.apply(moves[child]);
+      if (depth == path.length) {
+        path = Arrays.copyOf(path, 2 * depth);
+      }
+      path[depth++] = child;
+      if (visits[child] == 0) {
+        break;
+      }
+      node = child;
+    }
+    int nbMoves = playouts.play(engine);
+    int winner = Playouts.winner(engine);
+    for (int i = 0; i < depth; i++) {
+      int pathNode = path[i];
+      visits[pathNode]++;
+      if (movers[pathNode] == winner) {
+        wins[pathNode]++;
+      }
+    }
+    for (int i = 0; i < nbMoves + depth - 1; i++) {
+      engine.undo();
+    }
+    nbPlayouts++;
+  }
+
+  /**
+   * Write the candidate moves of a node in the pool
+   *
+   * @param node (int) the node
+   */
+  private void addCandidates(int node) {
+    if (nbCandidatesInPool + playouts.getMaxCandidates() > candidates.length) {
+      candidates = Arrays.copyOf(candidates, 2 * candidates.length + playouts.getMaxCandidates());
+    }
+    candidatesStarts[node] = nbCandidatesInPool;
+    nbCandidates[node] = playouts.addCandidates(engine, candidates, nbCandidatesInPool);
+    nbCandidatesInPool += nbCandidates[node];
+  }
+
+  /**
+   * Add the child of a random candidate move not tried yet and return it
+   *
+   * @param node (int) the node
+   * @return (int)
+   */
+  private int expand(int node) {
+    int start = candidatesStarts[node];
+    int tried = start + nbExpanded[node];
+    int index = tried + playouts.nextInt(nbCandidates[node] - nbExpanded[node]);
+    int move = candidates[index];
+    candidates[index] = candidates[tried];
+    candidates[tried] = move;
+    nbExpanded[node]++;
+    int child = addNode(move, engine.getCurrentPlayer());
+    nextSiblings[child] = firstChildren[node];
+    firstChildren[node] = child;
+    return child;
+  }
+
+  /**
+   * Return the child of a node with the best upper confidence bound
+   *
+   * @param node (int) the node
+   * @return (int)
+   */
+  private int select(int node) {
+    double logVisits = Math.log(visits[node]);
+    int best = -1;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int child = firstChildren[node]; child >= 0; child = nextSiblings[child]) {
+      double value = wins[child] / visits[child] + exploration * Math.sqrt(logVisits / visits[child]);
+      if (value > bestValue) {
+        best = child;
+        bestValue = value;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Return the number of children of the root
+   *
+   * @return (int)
+   */
+  int getNbRootChildren() {
+    return nbExpanded[0];
+  }
+
+  /**
+   * Return the number of candidate moves of the root, -1 before the first iteration
+   *
+   * @return (int)
+   */
+  int getNbRootCandidates() {
+    return nbCandidates[0];
+  }
+
+  /**
+   * Return the packed move of a child of the root
+   *
+   * @param index (int) index of the child, in the order of the candidate moves
+   * @return (int)
+   */
+  int getRootMove(int index) {
+    return candidates[candidatesStarts[0] + index];
+  }
+
+  /**
+   * Return the number of visits of the child of the root for a move, 0 if it has not been expanded
+   *
+   * @param move (int) packed move
+   * @return (int)
+   */
+  int getRootVisits(int move) {
+    for (int child = firstChildren[0]; child >= 0; child = nextSiblings[child]) {
+      if (moves[child] == move) {
+        return visits[child];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Return the number of wins of the child of the root for a move, 0 if it has not been expanded
+   *
+   * @param move (int) packed move
+   * @return (double)
+   */
+  double getRootWins(int move) {
+    for (int child = firstChildren[0]; child >= 0; child = nextSiblings[child]) {
+      if (moves[child] == move) {
+        return wins[child];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Return the packed move of the most visited child of the root
+   *
+   * @return (int)
+   */
+  int getBestMove() {
+    int best = -1;
+    for (int child = firstChildren[0]; child >= 0; child = nextSiblings[child]) {
+      if (best < 0 || visits[child] > visits[best]) {
+        best = child;
+      }
+    }
+    if (best < 0) {
+      throw new IllegalStateException("The search has no move");
+    }
+    return moves[best];
+  }
+
+  /**
+   * Return the number of playouts since the last reset
+   *
+   * @return (long)
+   */
+  long getNbPlayouts() {
+    return nbPlayouts;
+  }
+}
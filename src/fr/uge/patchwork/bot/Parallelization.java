@@ -0,0 +1,15 @@
+package fr.uge.patchwork.bot;
+
+/**
+ * Enum for the ways the MCTS bot spreads a search over several threads
+ */
+public enum Parallelization {
+  /**
+   * Each thread grows its own tree, the visits of the moves of the roots are added at the end
+   */
+  ROOT,
+  /**
+   * The threads grow one shared tree, with virtual loss and atomic statistics
+   */
+  TREE
+}
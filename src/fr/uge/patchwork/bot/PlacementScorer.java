@@ -0,0 +1,165 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.PlacementTable;
+
+import java.util.Objects;
+
+/**
+ * Class for the choice of the placements of the patches by the bots
+ * A placement is scored by its contacts: the sides of its squares against a filled square or the edge
+ * of the quilt board. Placements with many contacts keep the empty squares of the quilt board together
+ * The masks of the edges are computed once for the rules, then the scores use only shifts and bit counts
+ */
+final class PlacementScorer {
+  private final GameRules rules;
+  private final int width;
+  private final long[] firstColumn;
+  private final long[] lastColumn;
+  private final long[] firstRow;
+  private final long[] lastRow;
+
+  /**
+   * Init a placement scorer for the quilt boards of a game
+   *
+   * @param rules (GameRules) rules of the game
+   */
+  PlacementScorer(GameRules rules) {
+    Objects.requireNonNull(rules);
+    this.rules = rules;
+    this.width = rules.getQuiltWidth();
+    if (width >= Long.SIZE) {
+      throw new IllegalArgumentException("The quilt boards must be less than " + Long.SIZE + " squares wide");
+    }
+    int height = rules.getQuiltHeight();
+    this.firstColumn = new long[2];
+    this.lastColumn = new long[2];
+    this.firstRow = new long[2];
+    this.lastRow = new long[2];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int index = y * width + x;
+        if (x == 0) {
+          set(firstColumn, index);
+        }
+        if (x == width - 1) {
+          set(lastColumn, index);
+        }
+        if (y == 0) {
+          set(firstRow, index);
+        }
+        if (y == height - 1) {
+          set(lastRow, index);
+        }
+      }
+    }
+  }
+
+  /**
+   * Set the bit of a square in a mask
+   *
+   * @param mask  (long[]) low and high longs of the mask
+   * @param index (int) index of the square
+   */
+  private static void set(long[] mask, int index) {
+    mask[index / Long.SIZE] |= 1L << index;
+  }
+
+  /**
+   * Return the rules of the scored game
+   *
+   * @return (GameRules)
+   */
+  GameRules getRules() {
+    return rules;
+  }
+
+  /**
+   * Return the number of contacts of a placement of a patch on the quilt board of a player
+   *
+   * @param engine    (GameEngine) the engine
+   * @param player    (int) index of the player
+   * @param table     (PlacementTable) placement table of the patch
+   * @param placement (int) index of the placement in the table
+   * @return (int)
+   */
+  int score(GameEngine engine, int player, PlacementTable table, int placement) {
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    long maskLow = table.getLowMask(placement);
+    long maskHigh = table.getHighMask(placement);
+    // a square touches a filled square on its east side if the square after it is filled
+    int contacts = Long.bitCount(maskLow & (lastColumn[0] | low >>> 1 | high << 63))
+            + Long.bitCount(maskHigh & (lastColumn[1] | high >>> 1));
+    contacts += Long.bitCount(maskLow & (firstColumn[0] | low << 1))
+            + Long.bitCount(maskHigh & (firstColumn[1] | high << 1 | low >>> 63));
+    contacts += Long.bitCount(maskLow & (lastRow[0] | low >>> width | high << (Long.SIZE - width)))
+            + Long.bitCount(maskHigh & (lastRow[1] | high >>> width));
+    contacts += Long.bitCount(maskLow & (firstRow[0] | low << width))
+            + Long.bitCount(maskHigh & (firstRow[1] | high << width | low >>> (Long.SIZE - width)));
+    return contacts;
+  }
+
+  /**
+   * Return the index of the placement of a patch with the most contacts on the quilt board of a player,
+   * -1 if the patch doesn't fit
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @param id     (int) id of the patch
+   * @return (int)
+   */
+  int bestPlacement(GameEngine engine, int player, int id) {
+    var table = rules.getPlacementTable(id);
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    int best = -1;
+    int bestScore = -1;
+    for (int i = 0; i < table.size(); i++) {
+      if ((low & table.getLowMask(i)) == 0 && (high & table.getHighMask(i)) == 0) {
+        int score = score(engine, player, table, i);
+        if (score > bestScore) {
+          best = i;
+          bestScore = score;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Write the indexes of the placements of a patch with the most contacts on the quilt board of a player,
+   * best first, and return their number
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @param id     (int) id of the patch
+   * @param best   (int[]) buffer of the placements, its length is the maximum number of placements
+   * @param scores (int[]) buffer of the scores, at least as long as best
+   * @return (int)
+   */
+  int bestPlacements(GameEngine engine, int player, int id, int[] best, int[] scores) {
+    var table = rules.getPlacementTable(id);
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    int size = 0;
+    for (int i = 0; i < table.size(); i++) {
+      if ((low & table.getLowMask(i)) != 0 || (high & table.getHighMask(i)) != 0) {
+        continue;
+      }
+      int score = score(engine, player, table, i);
+      if (size == best.length && score <= scores[size - 1]) {
+        continue;
+      }
+      int j = size == best.length ? size - 1 : size++;
+      for (; j > 0 && scores[j - 1] < score; j--) {
+        best[j] = best[j - 1];
+        scores[j] = scores[j - 1];
+      }
+      best[j] = i;
+      scores[j] = score;
+    }
+    return size;
+  }
+}
@@ -0,0 +1,16 @@
+package fr.uge.patchwork.bot;
+
+/**
+ * Enum for the policies of the playouts of the MCTS bot
+ */
+public enum PlayoutPolicy {
+  /**
+   * Every legal move has the same probability
+   */
+  RANDOM,
+  /**
+   * The player buys the patch with the best value for its price, placed with the most contacts,
+   * and passes if no patch fits or is affordable
+   */
+  GREEDY
+}
@@ -0,0 +1,154 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.Move;
+import fr.uge.patchwork.game.MoveGenerator;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Class for the candidate moves (see CandidateMoves) and the playouts of a search thread of the MCTS bot
+ * Nothing is allocated once the scorer of the rules is built
+ */
+final class Playouts {
+  private static final double GREEDY_EPSILON = 0.1;
+
+  private final PlayoutPolicy policy;
+  private final SplittableRandom random;
+  private final MoveGenerator generator = new MoveGenerator();
+  private final CandidateMoves candidateMoves;
+  private PlacementScorer scorer;
+
+  /**
+   * Init the playouts of a search thread
+   *
+   * @param policy             (PlayoutPolicy) policy of the playouts
+   * @param placementsPerPatch (int) number of placements of a patch in the candidate moves
+   * @param random             (SplittableRandom) random generator of the thread
+   */
+  Playouts(PlayoutPolicy policy, int placementsPerPatch, SplittableRandom random) {
+    this.policy = Objects.requireNonNull(policy);
+    this.random = Objects.requireNonNull(random);
+    this.candidateMoves = new CandidateMoves(placementsPerPatch);
+  }
+
+  /**
+   * Prepare the playouts for the rules of a game
+   *
+   * @param rules (GameRules) rules of the game
+   */
+  void prepare(GameRules rules) {
+    candidateMoves.prepare(rules);
+    scorer = candidateMoves.getScorer();
+  }
+
+  /**
+   * Return the maximum number of candidate moves of a state
+   *
+   * @return (int)
+   */
+  int getMaxCandidates() {
+    return candidateMoves.getMaxCandidates();
+  }
+
+  /**
+   * Return a random int between 0 (included) and a bound (excluded)
+   *
+   * @param bound (int) the bound
+   * @return (int)
+   */
+  int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  /**
+   * Write the candidate moves of the current player of an engine in a buffer and return their number
+   * The buffer must have room for getMaxCandidates moves after the offset
+   *
+   * @param engine (GameEngine) the engine
+   * @param buffer (int[]) the buffer
+   * @param offset (int) index of the first move in the buffer
+   * @return (int)
+   */
+  int addCandidates(GameEngine engine, int[] buffer, int offset) {
+    return candidateMoves.add(engine, buffer, offset);
+  }
+
+  /**
+   * Play the game of an engine until its end with the playout policy and return the number of applied moves
+   *
+   * @param engine (GameEngine) the engine
+   * @return (int)
+   */
+  int play(GameEngine engine) {
+    int nbMoves = 0;
+    while (!engine.isFinished()) {
+      engine.apply(policy == PlayoutPolicy.RANDOM ? randomMove(engine) : greedyMove(engine));
+      nbMoves++;
+    }
+    return nbMoves;
+  }
+
+  /**
+   * Return the index of the winner of a finished game (the first player on a tie)
+   *
+   * @param engine (GameEngine) the engine
+   * @return (int)
+   */
+  static int winner(GameEngine engine) {
+    return engine.getFinalScore(1) > engine.getFinalScore(0) ? 1 : 0;
+  }
+
+  /**
+   * Return a random legal move
+   *
+   * @param engine (GameEngine) the engine
+   * @return (int)
+   */
+  private int randomMove(GameEngine engine) {
+    int nb = generator.generate(engine);
+    return generator.getMove(random.nextInt(nb));
+  }
+
+  /**
+   * Return the move of the greedy policy: the purchase of the patch with the best value for its price
+   * and the time it costs, a pass if no purchase has a positive value, and sometimes a random move
+   *
+   * @param engine (GameEngine) the engine
+   * @return (int)
+   */
+  private int greedyMove(GameEngine engine) {
+    var rules = engine.getRules();
+    int player = engine.getCurrentPlayer();
+    if (engine.isLeatherPhase()) {
+      return Move.leather(scorer.bestPlacement(engine, player, rules.getLeatherPatch().id()));
+    }
+    if (random.nextDouble() < GREEDY_EPSILON) {
+      return randomMove(engine);
+    }
+    int position = engine.getPosition(player);
+    int buttonsLeft = rules.countButtons(position + 1, rules.getTrackSize() - 1);
+    int bestSlot = -1;
+    double bestValue = 0;
+    int nbSlots = Math.min(GameRules.NB_NEXT_PATCHES, engine.getRingSize());
+    for (int slot = 0; slot < nbSlots; slot++) {
+      var patch = rules.getPatch(engine.getNextPatchId(slot));
+      if (patch.price() > engine.getMoney(player)) {
+        continue;
+      }
+      double value = (2.0 * patch.getNumberOfBlocks() + patch.earnings() * buttonsLeft - patch.price())
+              / (patch.forwardBlocks() + 1);
+      if (value > bestValue && engine.canPlace(player, patch.id())) {
+        bestSlot = slot;
+        bestValue = value;
+      }
+    }
+    if (bestSlot < 0) {
+      return Move.PASS_MOVE;
+    }
+    int id = engine.getNextPatchId(bestSlot);
+    return Move.buy(bestSlot, scorer.bestPlacement(engine, player, id));
+  }
+}
@@ -0,0 +1,232 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.Move;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Class for the tree of a Monte Carlo tree search grown by several threads at the same time
+ * The statistics of the nodes are updated with atomic increments, without locks. A thread adds a
+ * virtual loss to the nodes it goes through (a visit without a win, counted before the playout) so
+ * that the other threads explore other nodes meanwhile
+ * A node is expanded once by the thread that wins the compare-and-set of its state: its children are
+ * allocated in one block of the fixed-size arrays and published by the write of the state
+ */
+final class SharedTree {
+  private static final int LEAF = 0;
+  private static final int EXPANDING = 1;
+  private static final int EXPANDED = 2;
+  private static final int FULL = 3;
+
+  private final double exploration;
+  private final int capacity;
+  private final int[] moves;
+  private final int[] movers;
+  private final int[] firstChildren;
+  private final int[] nbChildren;
+  private final AtomicIntegerArray states;
+  private final AtomicIntegerArray visits;
+  private final AtomicIntegerArray wins;
+  private final AtomicInteger nbNodes = new AtomicInteger();
+  private volatile GameEngine root;
+
+  /**
+   * Init a shared tree
+   *
+   * @param exploration (double) exploration constant of UCT
+   * @param capacity    (int) maximum number of nodes of the tree
+   */
+  SharedTree(double exploration, int capacity) {
+    if (capacity <= 1) {
+      throw new IllegalArgumentException("The tree must have room for the root and its children");
+    }
+    this.exploration = exploration;
+    this.capacity = capacity;
+    this.moves = new int[capacity];
+    this.movers = new int[capacity];
+    this.firstChildren = new int[capacity];
+    this.nbChildren = new int[capacity];
+    this.states = new AtomicIntegerArray(capacity);
+    this.visits = new AtomicIntegerArray(capacity);
+    this.wins = new AtomicIntegerArray(capacity);
+  }
+
+  /**
+   * Start a new tree on the state of an engine, while no worker is running
+   *
+   * @param engine (GameEngine) the engine
+   */
+  void reset(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    int used = Math.min(nbNodes.get(), capacity);
+    for (int i = 0; i < used; i++) {
+      states.set(i, LEAF);
+      visits.set(i, 0);
+      wins.set(i, 0);
+    }
+    moves[0] = Move.PASS_MOVE;
+    movers[0] = -1;
+    nbNodes.set(1);
+    root = engine;
+  }
+
+  /**
+   * Return the packed move of the most visited child of the root
+   *
+   * @return (int)
+   */
+  int getBestMove() {
+    if (states.get(0) != EXPANDED) {
+      throw new IllegalStateException("The search has no move");
+    }
+    int best = firstChildren[0];
+    for (int child = best + 1; child < firstChildren[0] + nbChildren[0]; child++) {
+      if (visits.get(child) > visits.get(best)) {
+        best = child;
+      }
+    }
+    return moves[best];
+  }
+
+  /**
+   * Return the number of candidate moves of the root, -1 while the root is not expanded
+   *
+   * @return (int)
+   */
+  int getNbRootCandidates() {
+    return states.get(0) == EXPANDED ? nbChildren[0] : -1;
+  }
+
+  /**
+   * Return the number of visits of the root
+   *
+   * @return (int)
+   */
+  int getNbPlayouts() {
+    return visits.get(0);
+  }
+
+  /**
+   * Class for a thread of the search on the shared tree, with its own copy of the engine
+   */
+  final class Worker {
+    private final Playouts playouts;
+    private GameEngine engine;
+    private int[] path = new int[256];
+    private final int[] candidates;
+
+    /**
+     * Init a worker
+     *
+     * @param playouts (Playouts) candidate moves and playouts of the thread
+     */
+    Worker(Playouts playouts) {
+      this.playouts = Objects.requireNonNull(playouts);
+      this.candidates = new int[playouts.getMaxCandidates()];
+    }
+
+    /**
+     * Copy the root of the tree, after a reset of the tree
+     */
+    void start() {
+      engine = root.copy();
+      playouts.prepare(engine.getRules());
+    }
+
+    /**
+     * Run one iteration: selection with virtual loss, expansion, playout and backpropagation
+     */
+    void iterate() {
+      int node = 0;
+      int depth = 0;
+      path[depth++] = node;
+      visits.incrementAndGet(node);
+      while (!engine.isFinished()) {
+        int state = states.get(node);
+        if (state == LEAF && (node == 0 || visits.get(node) > 1) && states.compareAndSet(node, LEAF, EXPANDING)) {
+          state = expand(node);
+        }
+        if (state != EXPANDED) {
+          break;
+        }
+        int child = select(node);
+        int childVisits = visits.getAndIncrement(child);
+        engine.apply(moves[child]);
+        if (depth == path.length) {
+          path = Arrays.copyOf(path, 2 * depth);
+        }
+        path[depth++] = child;
+        if (childVisits == 0) {
+          break;
+        }
+        node = child;
+      }
+      int nbMoves = playouts.play(engine);
+      int winner = Playouts.winner(engine);
+      for (int i = 1; i < depth; i++) {
+        if (movers[path[i]] == winner) {
+          wins.incrementAndGet(path[i]);
+        }
+      }
+      for (int i = 0; i < nbMoves + depth - 1; i++) {
+        engine.undo();
+      }
+    }
+
+    /**
+     * Add the children of a node and return its new state
+     *
+     * @param node (int) the node, in the EXPANDING state
+     * @return (int)
+     */
+    private int expand(int node) {
+      int nb = playouts.addCandidates(engine, candidates, 0);
+      int first = nbNodes.getAndAdd(nb);
+      if (first + nb > capacity) {
+        states.set(node, FULL);
+        return FULL;
+      }
+      int mover = engine.getCurrentPlayer();
+      for (int i = 0; i < nb; i++) {
+        moves[first + i] = candidates[i];
+        movers[first + i] = mover;
+      }
+      firstChildren[node] = first;
+      nbChildren[node] = nb;
+      states.set(node, EXPANDED);
+      return EXPANDED;
+    }
+
+    /**
+     * Return the child of a node with the best upper confidence bound, an unvisited child first
+     *
+     * @param node (int) the expanded node
+     * @return (int)
+     */
+    private int select(int node) {
+      int first = firstChildren[node];
+      int nb = nbChildren[node];
+      int offset = playouts.nextInt(nb);
+      double logVisits = Math.log(Math.max(1, visits.get(node)));
+      int best = -1;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < nb; i++) {
+        int child = first + (i + offset) % nb;
+        int childVisits = visits.get(child);
+        if (childVisits == 0) {
+          return child;
+        }
+        double value = (double) wins.get(child) / childVisits + exploration * Math.sqrt(logVisits / childVisits);
+        if (value > bestValue) {
+          best = child;
+          bestValue = value;
+        }
+      }
+      return best;
+    }
+  }
+}
@@ -0,0 +1,298 @@
+package fr.uge.patchwork.bot;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.GameArchive;
+import fr.uge.patchwork.game.GameEngine;
+import fr.uge.patchwork.game.GameRecord;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.main.AdvancedGame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongFunction;
+
+/**
+ * Class for a tournament between two bots on advanced games, without display
+ * The games are played two by two on the same shuffle of the circle of patches, each bot playing first once,
+ * and spread over the threads of a work-stealing pool. Each pair draws its shuffle and its bots from its own
+ * stream split from the seed of the tournament, so a tournament without time limit plays the same games from
+ * one run to the next, whatever the number of threads
+ * BOT FORMAT: greedy, mcts[:iterations] or alphabeta[:depth], followed by +endgame to solve the endgames
+ */
+public final class Tournament {
+  private static final int MONEY = 5;
+  private static final int DEFAULT_ITERATIONS = 1_000;
+  private static final int DEFAULT_DEPTH = 3;
+  private static final int TABLE_MEGABYTES = 4;
+  private static final double Z = 1.96;
+
+  private final String first;
+  private final String second;
+  private final LongFunction<Bot> firstFactory;
+  private final LongFunction<Bot> secondFactory;
+  private final GameRules rules;
+  private final int[] ring;
+
+  /**
+   * Record for the result of a game of the tournament
+   *
+   * @param firstScore  final score of the first bot
+   * @param secondScore final score of the second bot
+   * @param firstWins   true if the first bot won (the player who played first wins a tie)
+   * @param firstSeat   true if the first bot played first
+   * @param record      record of the game
+   */
+  private record Result(int firstScore, int secondScore, boolean firstWins, boolean firstSeat, GameRecord record) {
+  }
+
+  /**
+   * Init a tournament between two bots
+   * The files of the game are read once, for the rules and the circle of patches in the order of the file
+   *
+   * @param first  (String) the first bot (see the bot format)
+   * @param second (String) the second bot (see the bot format)
+   * @throws IOException if the files of the game cannot be read
+   */
+  public Tournament(String first, String second) throws IOException {
+    this.first = Objects.requireNonNull(first);
+    this.second = Objects.requireNonNull(second);
+    this.firstFactory = factory(first);
+    this.secondFactory = factory(second);
+    var players = new ArrayList<Player>();
+    for (int i = 0; i < GameState.NB_PLAYERS; i++) {
+      players.add(new Player("Player " + (i + 1), (char) ('1' + i), MONEY));
+    }
+    var circlePatches = new CirclePatches();
+    var centralBoard = new CentralBoard();
+    circlePatches.load(AdvancedGame.CIRCLE_PATCHES);
+    centralBoard.load(AdvancedGame.CENTRAL_BOARD);
+    this.rules = GameRules.of(players, centralBoard, circlePatches, AdvancedGame.newSpecialTile());
+    this.ring = circlePatches.getPatches().stream().mapToInt(Patch::id).toArray();
+  }
+
+  /**
+   * Return the factory of the bots of a description, from a seed to a new bot
+   *
+   * @param description (String) the bot (see the bot format)
+   * @return (LongFunction < Bot >)
+   */
+  private static LongFunction<Bot> factory(String description) {
+    boolean endgame = description.endsWith("+endgame");
+    var tokens = description.substring(0, description.length() - (endgame ? "+endgame".length() : 0)).split(":");
+    if (tokens.length > 2) {
+      throw new IllegalArgumentException("Invalid bot: " + description);
+    }
+    LongFunction<Bot> factory = switch (tokens[0]) {
+      case "greedy" -> seed -> new GreedyBot();
+      case "mcts" -> {
+        int iterations = tokens.length > 1 ? Integer.parseInt(tokens[1]) : DEFAULT_ITERATIONS;
+        yield seed -> new MctsBot(iterations, 0, seed);
+      }
+      case "alphabeta" -> {
+        int depth = tokens.length > 1 ? Integer.parseInt(tokens[1]) : DEFAULT_DEPTH;
+        yield seed -> new AlphaBetaBot(depth, 0, AlphaBetaBot.DEFAULT_ASPIRATION_WINDOW,
+                MctsBot.DEFAULT_PLACEMENTS_PER_PATCH,
+                TranspositionTable.ofMegabytes(TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new HeuristicEvaluator());
+      }
+      default -> throw new IllegalArgumentException("Invalid bot: " + description);
+    };
+    if (!endgame) {
+      return factory;
+    }
+    return seed -> new EndgameBot(factory.apply(seed), new EndgameSolver(EndgameSolver.DEFAULT_DISTANCE, EndgameSolver.DEFAULT_MAX_NODES,
+            TranspositionTable.ofMegabytes(TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED)));
+  }
+
+  /**
+   * Return the state on the first turn of an advanced game
+   * The ring is shuffled and its neutral token placed by the helpers of CirclePatches,
+   * so the games are the ones of a circle of patches shuffled with the same seed
+   *
+   * @param shuffleSeed (long) seed of the shuffle of the circle of patches
+   * @return (GameState)
+   */
+  private GameState newGame(long shuffleSeed) {
+    var ring = this.ring.clone();
+    CirclePatches.shuffle(ring, new SplittableRandom(shuffleSeed));
+    int neutralToken = CirclePatches.neutralToken(ring, id -> rules.getPatch(id).getNumberOfBlocks());
+    return GameState.initial(rules, MONEY, ring, neutralToken);
+  }
+
+  /**
+   * Play a game of the tournament
+   *
+   * @param shuffleSeed (long) seed of the shuffle of the circle of patches
+   * @param firstSeed   (long) seed of the first bot
+   * @param secondSeed  (long) seed of the second bot
+   * @param firstSeat   (boolean) true if the first bot plays first
+   * @return (Result)
+   */
+  private Result play(long shuffleSeed, long firstSeed, long secondSeed, boolean firstSeat) {
+    var start = newGame(shuffleSeed);
+    var engine = new GameEngine(start);
+    var firstBot = firstFactory.apply(firstSeed);
+    var secondBot = secondFactory.apply(secondSeed);
+    int firstPlayer = firstSeat ? 0 : 1;
+    var moves = new int[64];
+    int nbMoves = 0;
+    while (!engine.isFinished()) {
+      var bot = engine.getCurrentPlayer() == firstPlayer ? firstBot : secondBot;
+      int move = bot.chooseMove(engine);
+      engine.apply(move);
+      if (nbMoves == moves.length) {
+        moves = Arrays.copyOf(moves, 2 * nbMoves);
+      }
+      moves[nbMoves++] = move;
+    }
+    int winner = engine.getFinalScore(1) > engine.getFinalScore(0) ? 1 : 0;
+    return new Result(engine.getFinalScore(firstPlayer), engine.getFinalScore(1 - firstPlayer),
+            winner == firstPlayer, firstSeat, GameRecord.of(start, Arrays.copyOf(moves, nbMoves)));
+  }
+
+  /**
+   * Play the games of the tournament and print the report
+   *
+   * @param nbPairs   (int) number of pairs of games, one per shuffle
+   * @param seed      (long) seed of the tournament
+   * @param nbThreads (int) number of threads of the pool
+   * @param archive   (Path) archive the records of the games are appended to, null for none
+   * @throws IOException if the archive cannot be written
+   */
+  public void run(int nbPairs, long seed, int nbThreads, Path archive) throws IOException {
+    if (nbPairs <= 0) {
+      throw new IllegalArgumentException("The number of games must be positive");
+    }
+    var random = new SplittableRandom(seed);
+    var pool = new ForkJoinPool(nbThreads);
+    try {
+      var tasks = new ArrayList<ForkJoinTask<Result>>();
+      long start = System.nanoTime();
+      for (int i = 0; i < nbPairs; i++) {
+        var pairRandom = random.split();
+        long shuffleSeed = pairRandom.nextLong();
+        long firstSeed = pairRandom.nextLong();
+        long secondSeed = pairRandom.nextLong();
+        tasks.add(pool.submit(() -> play(shuffleSeed, firstSeed, secondSeed, true)));
+        tasks.add(pool.submit(() -> play(shuffleSeed, secondSeed, firstSeed, false)));
+      }
+      var results = new ArrayList<Result>();
+      for (var task : tasks) {
+        results.add(task.join());
+      }
+      report(results, (System.nanoTime() - start) / 1e9, nbThreads);
+      if (archive != null) {
+        try (var writer = GameArchive.Writer.open(archive)) {
+          int first = writer.getNbGames();
+          for (var result : results) {
+            writer.append(result.record);
+          }
+          System.out.println("Games " + first + " to " + (writer.getNbGames() - 1) + " appended to " + archive);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Print the report of the games
+   *
+   * @param results   (List < Result >) results of the games
+   * @param seconds   (double) time of the tournament in seconds
+   * @param nbThreads (int) number of threads of the pool
+   */
+  private void report(List<Result> results, double seconds, int nbThreads) {
+    int nbGames = results.size();
+    int firstWins = 0;
+    int firstSeatWins = 0;
+    var firstScores = new int[nbGames];
+    var secondScores = new int[nbGames];
+    var differences = new int[nbGames];
+    for (int i = 0; i < nbGames; i++) {
+      var result = results.get(i);
+      firstScores[i] = result.firstScore;
+      secondScores[i] = result.secondScore;
+      differences[i] = result.firstScore - result.secondScore;
+      if (result.firstWins) {
+        firstWins++;
+      }
+      if (result.firstWins == result.firstSeat) {
+        firstSeatWins++;
+      }
+    }
+    System.out.printf("%d games in %.1f s on %d threads: %.2f games/s%n", nbGames, seconds, nbThreads, nbGames / seconds);
+    System.out.println("Bot\tWins\tWin rate\t95% CI");
+    printWins(first, firstWins, nbGames);
+    printWins(second, nbGames - firstWins, nbGames);
+    printWins("first seat", firstSeatWins, nbGames);
+    System.out.println("Score\tMean\t95% CI\tStd dev\tMin\tQ1\tMedian\tQ3\tMax");
+    printScores(first, firstScores);
+    printScores(second, secondScores);
+    printScores("difference", differences);
+  }
+
+  /**
+   * Print the wins of a bot with the Wilson score interval of its win rate
+   *
+   * @param name    (String) name of the bot
+   * @param wins    (int) number of wins
+   * @param nbGames (int) number of games
+   */
+  private static void printWins(String name, int wins, int nbGames) {
+    double rate = (double) wins / nbGames;
+    double z2 = Z * Z / nbGames;
+    double center = (rate + z2 / 2) / (1 + z2);
+    double margin = Z * Math.sqrt(rate * (1 - rate) / nbGames + z2 / (4 * nbGames)) / (1 + z2);
+    System.out.printf("%s\t%d\t%.3f\t[%.3f, %.3f]%n", name, wins, rate, center - margin, center + margin);
+  }
+
+  /**
+   * Print the distribution of scores with the normal interval of their mean
+   *
+   * @param name   (String) name of the scores
+   * @param scores (int[]) the scores
+   */
+  private static void printScores(String name, int[] scores) {
+    var sorted = scores.clone();
+    Arrays.sort(sorted);
+    int n = sorted.length;
+    double mean = Arrays.stream(sorted).average().orElse(0);
+    double variance = n < 2 ? 0 : Arrays.stream(sorted).mapToDouble(score -> (score - mean) * (score - mean)).sum() / (n - 1);
+    double deviation = Math.sqrt(variance);
+    double margin = Z * deviation / Math.sqrt(n);
+    System.out.printf("%s\t%.2f\t[%.2f, %.2f]\t%.2f\t%d\t%d\t%d\t%d\t%d%n", name, mean, mean - margin, mean + margin,
+            deviation, sorted[0], sorted[n / 4], sorted[n / 2], sorted[3 * n / 4], sorted[n - 1]);
+  }
+
+  /**
+   * Run a tournament
+   *
+   * @param args (String[]) the first bot, the second bot, then optionally the number of pairs of games,
+   *             the seed, the number of threads (the number of processors by default) and the archive of the games
+   * @throws IOException if the files of the game cannot be read or the archive cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: Tournament <bot> <bot> [pairs of games] [seed] [threads] [archive]");
+      System.err.println("Bot: greedy, mcts[:iterations] or alphabeta[:depth], followed by +endgame to solve the endgames");
+      return;
+    }
+    int nbPairs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+    long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+    int nbThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+    var archive = args.length > 5 ? Path.of(args[5]) : null;
+    new Tournament(args[0], args[1]).run(nbPairs, seed, nbThreads, archive);
+  }
+}
@@ -0,0 +1,308 @@
+package fr.uge.patchwork.bot;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class for a transposition table shared by the search threads, without locks
+ * An entry is two longs: the hash xor the data, then the data. A thread reads or writes both longs
+ * without synchronization, and an entry torn by two concurrent writes is seen as a miss because the
+ * hash rebuilt from the two longs doesn't match
+ * The data packs the value (16 bits), the depth (8 bits), the bound (2 bits), the generation of the
+ * search (6 bits) and the packed move (32 bits)
+ */
+public final class TranspositionTable {
+  /**
+   * Data returned by probe when the position is not in the table
+   */
+  public static final long MISS = 0;
+
+  private static final int ENTRY_BYTES = 2 * Long.BYTES;
+  private static final int MAX_DEPTH = 0xFF;
+  private static final int GENERATION_MASK = 0x3F;
+  private static final Bound[] BOUNDS = Bound.values();
+
+  /**
+   * Enum for the bound of a stored value
+   */
+  public enum Bound {
+    /**
+     * The value is the exact value of the position
+     */
+    EXACT,
+    /**
+     * The value of the position is greater than or equal to the stored value
+     */
+    LOWER,
+    /**
+     * The value of the position is lower than or equal to the stored value
+     */
+    UPPER
+  }
+
+  /**
+   * Enum for the choice of the entry kept when two positions use the same slot
+   */
+  public enum ReplacementPolicy {
+    /**
+     * The new entry always replaces the old one
+     */
+    ALWAYS,
+    /**
+     * The new entry replaces the old one if it was searched as deep, or if the old one comes from an older search
+     */
+    DEPTH_PREFERRED
+  }
+
+  private final AtomicLongArray entries;
+  private final int mask;
+  private final ReplacementPolicy policy;
+  private volatile int generation;
+  private final LongAdder probes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+  private final LongAdder stores = new LongAdder();
+
+  /**
+   * Init a transposition table
+   *
+   * @param nbEntries (int) minimum number of entries, rounded up to a power of two
+   * @param policy    (ReplacementPolicy) replacement policy of the entries
+   */
+  public TranspositionTable(int nbEntries, ReplacementPolicy policy) {
+    Objects.requireNonNull(policy);
+    if (nbEntries <= 0 || nbEntries > 1 << 29) {
+      throw new IllegalArgumentException("The number of entries must be between 1 and " + (1 << 29));
+    }
+    int size = Integer.highestOneBit(nbEntries);
+    if (size < nbEntries) {
+      size <<= 1;
+    }
+    this.entries = new AtomicLongArray(2 * size);
+    this.mask = size - 1;
+    this.policy = policy;
+  }
+
+  /**
+   * Return a transposition table that fits in the given memory
+   *
+   * @param megabytes (int) memory of the table in megabytes
+   * @param policy    (ReplacementPolicy) replacement policy of the entries
+   * @return (TranspositionTable)
+   */
+  public static TranspositionTable ofMegabytes(int megabytes, ReplacementPolicy policy) {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("The memory must be positive");
+    }
+    long nbEntries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+    return new TranspositionTable((int) Math.min(nbEntries, 1 << 29), policy);
+  }
+
+  /**
+   * Return the data stored for a position, MISS if the position is not in the table
+   *
+   * @param hash (long) Zobrist hash of the position
+   * @return (long)
+   */
+  public long probe(long hash) {
+    probes.increment();
+    int index = 2 * ((int) hash & mask);
+    long data = entries.getOpaque(index + 1);
+    long key = entries.getOpaque(index) ^ data;
+    if (data == MISS) {
+      return MISS;
+    }
+    if (key != hash) {
+      collisions.increment();
+      return MISS;
+    }
+    hits.increment();
+    return data;
+  }
+
+  /**
+   * Store the result of the search of a position
+   *
+   * @param hash  (long) Zobrist hash of the position
+   * @param value (int) value of the position, clamped to a short
+   * @param depth (int) depth of the search, clamped between 0 and 255
+   * @param bound (Bound) bound of the value
+   * @param move  (int) best packed move, 0 if none
+   */
+  public void store(long hash, int value, int depth, Bound bound, int move) {
+    Objects.requireNonNull(bound);
+    int index = 2 * ((int) hash & mask);
+    if (policy == ReplacementPolicy.DEPTH_PREFERRED) {
+      long old = entries.getOpaque(index + 1);
+      if (old != MISS && (entries.getOpaque(index) ^ old) != hash
+              && getGeneration(old) == generation && getDepth(old) > depth) {
+        return;
+      }
+    }
+    long data = pack(value, depth, bound, generation, move);
+    entries.setOpaque(index, hash ^ data);
+    entries.setOpaque(index + 1, data);
+    stores.increment();
+  }
+
+  /**
+   * Return the packed data of an entry
+   *
+   * @param value      (int) value of the position
+   * @param depth      (int) depth of the search
+   * @param bound      (Bound) bound of the value
+   * @param generation (int) generation of the search
+   * @param move       (int) best packed move
+   * @return (long)
+   */
+  private static long pack(int value, int depth, Bound bound, int generation, int move) {
+    value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    depth = Math.max(0, Math.min(MAX_DEPTH, depth));
+    return (long) (value & 0xFFFF) << 48 | (long) depth << 40 | (long) (bound.ordinal() + 1) << 38
+            | (long) generation << 32 | (move & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Return the value of the data of an entry
+   *
+   * @param data (long) data returned by probe
+   * @return (int)
+   */
+  public static int getValue(long data) {
+    return (short) (data >>> 48);
+  }
+
+  /**
+   * Return the depth of the data of an entry
+   *
+   * @param data (long) data returned by probe
+   * @return (int)
+   */
+  public static int getDepth(long data) {
+    return (int) (data >>> 40) & MAX_DEPTH;
+  }
+
+  /**
+   * Return the bound of the data of an entry
+   *
+   * @param data (long) data returned by probe
+   * @return (Bound)
+   */
+  public static Bound getBound(long data) {
+    return BOUNDS[((int) (data >>> 38) & 0x3) - 1];
+  }
+
+  /**
+   * Return the best packed move of the data of an entry
+   *
+   * @param data (long) data returned by probe
+   * @return (int)
+   */
+  public static int getMove(long data) {
+    return (int) data;
+  }
+
+  /**
+   * Return the generation of the search of the data of an entry
+   *
+   * @param data (long) data of an entry
+   * @return (int)
+   */
+  private static int getGeneration(long data) {
+    return (int) (data >>> 32) & GENERATION_MASK;
+  }
+
+  /**
+   * Start a new search: the entries of the previous searches can be replaced by shallower ones
+   */
+  public void newSearch() {
+    generation = (generation + 1) & GENERATION_MASK;
+  }
+
+  /**
+   * Remove every entry and reset the statistics
+   */
+  public void clear() {
+    for (int i = 0; i < entries.length(); i++) {
+      entries.setOpaque(i, 0);
+    }
+    probes.reset();
+    hits.reset();
+    collisions.reset();
+    stores.reset();
+  }
+
+  /**
+   * Return the number of entries of the table
+   *
+   * @return (int)
+   */
+  public int size() {
+    return mask + 1;
+  }
+
+  /**
+   * Return the number of probes since the creation or the last clear
+   *
+   * @return (long)
+   */
+  public long getNbProbes() {
+    return probes.sum();
+  }
+
+  /**
+   * Return the number of stores since the creation or the last clear
+   *
+   * @return (long)
+   */
+  public long getNbStores() {
+    return stores.sum();
+  }
+
+  /**
+   * Return the ratio of probes that found their position
+   *
+   * @return (double)
+   */
+  public double getHitRate() {
+    long nbProbes = probes.sum();
+    return nbProbes == 0 ? 0 : (double) hits.sum() / nbProbes;
+  }
+
+  /**
+   * Return the ratio of probes that found another position in the slot of their position
+   *
+   * @return (double)
+   */
+  public double getCollisionRate() {
+    long nbProbes = probes.sum();
+    return nbProbes == 0 ? 0 : (double) collisions.sum() / nbProbes;
+  }
+
+  /**
+   * Return the ratio of used entries
+   *
+   * @return (double)
+   */
+  public double getFillRatio() {
+    int used = 0;
+    for (int i = 1; i < entries.length(); i += 2) {
+      if (entries.getOpaque(i) != MISS) {
+        used++;
+      }
+    }
+    return (double) used / size();
+  }
+
+  /**
+   * Return a string representation of the statistics of the table
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return String.format("Entries: %d, Probes: %d, Hit rate: %.2f%%, Collision rate: %.2f%%, Fill ratio: %.2f%%",
+            size(), getNbProbes(), 100 * getHitRate(), 100 * getCollisionRate(), 100 * getFillRatio());
+  }
+}
@@ -161,7 +161,8 @@ public record ASCII() implements Display {
     Objects.requireNonNull(circlePatches);
     StringBuilder sb = new StringBuilder();
     sb.append("| Price              |").append(" ".repeat(5));
-    for (var patch : circlePatches.getNextPatches(numberOfPatches)) {
+    for (int i = 0; i < numberOfPatches; i++) {
+      var patch = circlePatches.getNextPatch(i);
       sb.append(patch.price());
       if (patch.price() < 10) {
         sb.append(" ".repeat(5)).append("|").append(" ".repeat(5));
@@ -183,7 +184,8 @@ public record ASCII() implements Display {
     Objects.requireNonNull(circlePatches);
     StringBuilder sb = new StringBuilder();
     sb.append("| Number of blocks   |").append(" ".repeat(5));
-    for (var patch : circlePatches.getNextPatches(numberOfPatches)) {
+    for (int i = 0; i < numberOfPatches; i++) {
+      var patch = circlePatches.getNextPatch(i);
       sb.append(patch.forwardBlocks());
       if (patch.getNumberOfBlocks() < 10) {
         sb.append(" ".repeat(5)).append("|").append(" ".repeat(5));
@@ -205,7 +207,8 @@ public record ASCII() implements Display {
     Objects.requireNonNull(circlePatches);
     StringBuilder sb = new StringBuilder();
     sb.append("| Earnings           |").append(" ".repeat(5));
-    for (var patch : circlePatches.getNextPatches(numberOfPatches)) {
+    for (int i = 0; i < numberOfPatches; i++) {
+      var patch = circlePatches.getNextPatch(i);
       sb.append(patch.earnings());
       if (patch.earnings() < 10) {
         sb.append(" ".repeat(5)).append("|").append(" ".repeat(5));
@@ -231,7 +234,7 @@ public record ASCII() implements Display {
       if (i == 0) sb.append("| Format             |");
       else sb.append("|                    |");
       for (int j = 0; j < numberOfPatches; j++) {
-        var patch = circlePatches.getNextPatches(numberOfPatches).get(j);
+        var patch = circlePatches.getNextPatch(j);
         if (i < patch.getHeight()) {
           int spaces = 11 - patch.getFormatLine(i).length();
           int backSpaces = spaces / 2;
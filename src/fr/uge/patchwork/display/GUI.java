@@ -377,8 +377,7 @@ public record GUI(ApplicationContext context) implements Display {
     Objects.requireNonNull(quiltBoard);
     float x = WIDTH / 2 - (float) quiltBoard.getWidth() * squareSize / 2;
     g.setColor(Color.BLACK);
-    HashMap<Patch, int[]> patchPositions = quiltBoard.getPatchPositions();
-    for (var patch : patchPositions.keySet()) {
+    for (var patch : quiltBoard.getPlacedPatches()) {
       var path = Path.of("src/fr/uge/patchwork/display/assets/" + patch.imageId() + ".png");
       try {
         var image = ImageIO.read(path.toFile());
@@ -388,7 +387,7 @@ public record GUI(ApplicationContext context) implements Display {
         }
         int widthToDraw = patch.getWidth() * squareSize;
         int heightToDraw = patch.getHeight() * squareSize;
-        g.drawImage(image, (int) x + patchPositions.get(patch)[0] * squareSize, (int) y + patchPositions.get(patch)[1] * 50, widthToDraw, heightToDraw, null);
+        g.drawImage(image, (int) x + patch.x() * squareSize, (int) y + patch.y() * 50, widthToDraw, heightToDraw, null);
       } catch (IOException e) {
         e.printStackTrace();
       }
@@ -519,7 +518,8 @@ public record GUI(ApplicationContext context) implements Display {
       drawCenteredTitleText(graphics, title, 100);
       drawCenteredSubTitleText(graphics, message, 150);
       int j = 0;
-      for (var patch : circlePatches.getNextPatches(nbPatch)) {
+      for (int i = 0; i < circlePatches.getNbPatches(nbPatch); i++) {
+        var patch = circlePatches.getNextPatch(i);
         var path = Path.of("src/fr/uge/patchwork/display/assets/" + patch.imageId() + ".png");
         try {
           var image = ImageIO.read(path.toFile());
@@ -661,7 +661,7 @@ public record GUI(ApplicationContext context) implements Display {
         Point2D.Float location1 = event1.getLocation();
         for (int k = 0; k < numberOfPatch; k++) {
           if (location1.x > WIDTH / 2 - WIDTH / 4 + k * WIDTH / 6 && location1.x < WIDTH / 2 - WIDTH / 4 + k * WIDTH / 6 + WIDTH / 6 && location1.y > 200 && location1.y < 200 + HEIGHT / 6) {
-            chosenPatch = circlePatches.getNextPatches(numberOfPatch).get(k);
+            chosenPatch = circlePatches.getNextPatch(k);
             result = player.checkPatchChoice(circlePatches, numberOfPatch, k + 1);
             if (result != null) {
               printNextPatches(circlePatches, numberOfPatch, "Choose a patch", result);
@@ -0,0 +1,50 @@
+package fr.uge.patchwork.game;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Class for the index of the buttons of a time track
+ * The number of buttons before each square is stored (counts[i] = number of buttons on the squares 0 to i - 1),
+ * so counting the buttons between two positions is O(1)
+ * The index is immutable, so the central board and the rules of a game share it
+ */
+final class ButtonIndex {
+  private final int[] counts;
+
+  /**
+   * Init the index of the buttons of a time track
+   *
+   * @param squares (List<CentralBoardSquare>) the squares of the time track
+   */
+  ButtonIndex(List<CentralBoardSquare> squares) {
+    Objects.requireNonNull(squares);
+    this.counts = new int[squares.size() + 1];
+    for (int i = 0; i < squares.size(); i++) {
+      counts[i + 1] = counts[i] + (squares.get(i).hasButton() ? 1 : 0);
+    }
+  }
+
+  /**
+   * Return the number of buttons between two positions (both included), 0 if the positions are out of the track
+   *
+   * @param from (int) first position
+   * @param to   (int) last position
+   * @return (int)
+   */
+  int countButtons(int from, int to) {
+    if (from < 0 || to >= counts.length - 1 || from > to) {
+      return 0;
+    }
+    return counts[to + 1] - counts[from];
+  }
+
+  /**
+   * Return the number of buttons of the time track
+   *
+   * @return (int)
+   */
+  int getNbButtons() {
+    return counts[counts.length - 1];
+  }
+}
@@ -5,8 +5,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Class for the central board
@@ -16,12 +18,27 @@ public class CentralBoard {
    * Representation of the central board
    */
   private final ArrayList<CentralBoardSquare> centralBoard;
+  /**
+   * Time token of each player on the central board, by short name of the player
+   */
+  private final HashMap<Character, TimeToken> timeTokens;
+  /**
+   * Index of the buttons, shared with the rules of the games played on the central board
+   */
+  private ButtonIndex buttonIndex;
+  /**
+   * Leather patches still on the central board, by position
+   */
+  private final TreeMap<Integer, Patch> leatherPatches;
 
   /**
    * Init the central board
    */
   public CentralBoard() {
     this.centralBoard = new ArrayList<>();
+    this.timeTokens = new HashMap<>();
+    this.buttonIndex = new ButtonIndex(List.of());
+    this.leatherPatches = new TreeMap<>();
   }
 
   /**
@@ -30,6 +47,7 @@ public class CentralBoard {
    * - . represents an empty square
    * - * represents a square with a leather patch
    * - x represents a square with a button
+   * The positions of the buttons and of the leather patches are indexed after loading
    *
    * @param path (Path) path to the file
    * @throws IOException if the file cannot be read
@@ -50,6 +68,56 @@ public class CentralBoard {
         }
       }
     }
+    indexSquares();
+  }
+
+  /**
+   * Index the positions of the buttons and of the leather patches of the central board
+   */
+  private void indexSquares() {
+    buttonIndex = new ButtonIndex(centralBoard);
+    leatherPatches.clear();
+    for (int i = 0; i < centralBoard.size(); i++) {
+      var square = centralBoard.get(i);
+      if (square.hasLeatherPatch()) {
+        leatherPatches.put(i, square.getLeatherPatch());
+      }
+    }
+  }
+
+  /**
+   * Return a copy of the central board, with its buttons and leather patches but without the time tokens
+   * (the players of the copy are placed with initPlayers)
+   *
+   * @return (CentralBoard)
+   */
+  public CentralBoard copy() {
+    var copy = new CentralBoard();
+    for (var square : centralBoard) {
+      copy.centralBoard.add(square.copy());
+    }
+    copy.indexSquares();
+    return copy;
+  }
+
+  /**
+   * Return the number of buttons between two positions (both included)
+   *
+   * @param from (int) first position
+   * @param to   (int) last position
+   * @return (int) the number of buttons
+   */
+  public int countButtons(int from, int to) {
+    return buttonIndex.countButtons(from, to);
+  }
+
+  /**
+   * Return the index of the buttons of the central board
+   *
+   * @return (ButtonIndex)
+   */
+  ButtonIndex getButtonIndex() {
+    return buttonIndex;
   }
 
   /**
@@ -83,6 +151,7 @@ public class CentralBoard {
     Objects.requireNonNull(players);
     for (var player : players) {
       centralBoard.get(0).addTimeToken(player.getTimeToken());
+      timeTokens.put(player.getShortName(), player.getTimeToken());
     }
   }
 
@@ -97,40 +166,43 @@ public class CentralBoard {
   public boolean gameIsFinished(ArrayList<Player> players, CirclePatches circlePatches) {
     Objects.requireNonNull(players);
     Objects.requireNonNull(circlePatches);
-    if (players.stream().allMatch(player -> player.getPosition() == centralBoard.size() - 1)) {
-      return true;
+    for (var player : players) {
+      if (getPosition(player) != centralBoard.size() - 1) {
+        return circlePatches.isEmpty();
+      }
     }
-    return circlePatches.isEmpty();
+    return true;
   }
 
   /**
-   * Find the square where the player is
+   * Return the position of the time token of the player on the central board
+   * Return the position of the player if the time token is not on the central board
    *
    * @param player (Player) the player
-   * @return (CentralBoardSquare) the square where the player is
+   * @return (int) the position of the player
    */
-  private CentralBoardSquare findPositionPlayer(Player player) {
-    Objects.requireNonNull(player);
-    return centralBoard.stream()
-            .filter(square -> square.getTimeToken(player.getShortName()) != null)
-            .findFirst()
-            .orElse(null);
+  private int getPosition(Player player) {
+    var timeToken = timeTokens.get(player.getShortName());
+    if (timeToken == null) {
+      return player.getPosition();
+    }
+    return timeToken.position();
   }
 
   /**
    * Move the player on the central board
+   * The old square of the player is found with the index of the time tokens
    *
    * @param player (Player) the player
    * @return (int) the new position of the player
    */
   public int moveToken(Player player) {
     Objects.requireNonNull(player);
-    var square = findPositionPlayer(player);
-    if (square != null) {
-      var oldTimeToken = square.getTimeToken(player.getShortName());
-      var newSquare = centralBoard.get(player.getPosition()).addTimeToken(player.getTimeToken());
-      square.removeTimeToken(oldTimeToken);
-      centralBoard.set(player.getPosition(), newSquare);
+    var oldTimeToken = timeTokens.get(player.getShortName());
+    if (oldTimeToken != null) {
+      centralBoard.get(player.getPosition()).addTimeToken(player.getTimeToken());
+      centralBoard.get(oldTimeToken.position()).removeTimeToken(oldTimeToken);
+      timeTokens.put(player.getShortName(), player.getTimeToken());
       return oldTimeToken.position();
     }
     return player.getPosition();
@@ -146,13 +218,9 @@ public class CentralBoard {
   public boolean playerPassedOnButton(Player player, int oldPosition) {
     Objects.requireNonNull(player);
     var newPosition = player.getPosition();
-    if (oldPosition < newPosition) {
-      for (int i = oldPosition; i <= newPosition; i++) {
-        if (centralBoard.get(i).hasButton()) {
-          player.addMoney(player.getEarnings());
-          return true;
-        }
-      }
+    if (oldPosition < newPosition && countButtons(oldPosition, newPosition) > 0) {
+      player.addMoney(player.getEarnings());
+      return true;
     }
     return false;
   }
@@ -168,10 +236,9 @@ public class CentralBoard {
     Objects.requireNonNull(player);
     var newPosition = player.getPosition();
     if (oldPosition < newPosition) {
-      for (int i = oldPosition; i <= newPosition; i++) {
-        if (centralBoard.get(i).hasLeatherPatch()) {
-          return centralBoard.get(i).getLeatherPatch();
-        }
+      var leatherPatch = leatherPatches.ceilingEntry(oldPosition);
+      if (leatherPatch != null && leatherPatch.getKey() <= newPosition) {
+        return leatherPatch.getValue();
       }
     }
     return null;
@@ -184,10 +251,13 @@ public class CentralBoard {
    */
   public void removeLeatherPatch(Patch patch) {
     Objects.requireNonNull(patch);
-    centralBoard.stream()
-            .filter(square -> square.getLeatherPatch() == patch)
-            .findFirst()
-            .ifPresent(CentralBoardSquare::removeLeatherPatch);
+    for (var leatherPatch : leatherPatches.entrySet()) {
+      if (leatherPatch.getValue() == patch) {
+        centralBoard.get(leatherPatch.getKey()).removeLeatherPatch();
+        leatherPatches.remove(leatherPatch.getKey());
+        return;
+      }
+    }
   }
 
   /**
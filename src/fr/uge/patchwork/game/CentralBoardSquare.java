@@ -110,6 +110,15 @@ public class CentralBoardSquare {
     leatherPatch = null;
   }
 
+  /**
+   * Return a copy of the square, without its time tokens
+   *
+   * @return (CentralBoardSquare)
+   */
+  public CentralBoardSquare copy() {
+    return new CentralBoardSquare(leatherPatch, button);
+  }
+
   /**
    * Return a string representation of the square
    *
@@ -4,21 +4,41 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
 
 /**
  * Class for the circle of patches
+ * The patches are stored in a ring: each slot holds a patch with the slots of the next and previous patches,
+ * so moving the neutral token, finding a patch by its id and removing a patch are O(1)
+ * The index of the neutral token in the circle is kept up to date, so it is read in O(1):
+ * the slots keep the order of the circle, so the index of a patch is its slot minus the number of removed slots
+ * before it, counted in a Fenwick tree (O(log n))
  */
 public class CirclePatches {
 
-  private final ArrayList<Patch> patches;
+  private Patch[] slots;
+  private int[] nextSlots;
+  private int[] previousSlots;
+  private int size;
+  private int firstSlot;
+  private int neutralSlot;
   private int neutralToken;
+  /**
+   * Slot of each patch of the circle, by id of the patch (the ids are unique in a circle), -1 if the patch
+   * is not in the circle
+   */
+  private int[] slotsById;
+  /**
+   * Fenwick tree of the removed slots (entry i + 1 for slot i)
+   */
+  private int[] removedSlots;
 
   /**
    * Init the circle of patches
    */
   public CirclePatches() {
-    this.patches = new ArrayList<>();
-    this.neutralToken = 0;
+    relink(List.of(), 0);
   }
 
   /**
@@ -26,18 +46,73 @@ public class CirclePatches {
    * FORMAT:
    * - each line represents a patch
    * - id:price:forwardBlocks:earnings:format:imageId
+   * The orientations of every patch are compiled in the ShapeRegistry when the patch is built
    *
    * @param path (Path) path to the file
-   * @throws IOException if the file cannot be read
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if an id is negative or used by two patches of the circle
    */
   public void load(Path path) throws IOException {
     Objects.requireNonNull(path);
+    var patches = getPatches();
     try (var reader = Files.newBufferedReader(path)) {
       patches.addAll(reader.lines()
               .map(line -> line.split(":"))
               .map(tokens -> new Patch(Integer.parseInt(tokens[0]), tokens[4], Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]), 0, false, -1, -1, Integer.parseInt(tokens[5])))
               .toList());
     }
+    relink(patches, getNeutralToken());
+  }
+
+  /**
+   * Rebuild the ring from a list of patches
+   *
+   * @param patches      (List < Patch >) the patches in circle order
+   * @param neutralToken (int) index of the neutral token in the list
+   * @throws IllegalArgumentException if an id is negative or used by two patches
+   */
+  private void relink(List<Patch> patches, int neutralToken) {
+    var newSlots = patches.toArray(new Patch[0]);
+    int maxId = -1;
+    for (var patch : newSlots) {
+      if (patch.id() < 0) {
+        throw new IllegalArgumentException("The id of a patch must be positive: " + patch.id());
+      }
+      maxId = Math.max(maxId, patch.id());
+    }
+    var newSlotsById = new int[maxId + 1];
+    Arrays.fill(newSlotsById, -1);
+    for (int i = 0; i < newSlots.length; i++) {
+      int id = newSlots[i].id();
+      if (newSlotsById[id] >= 0) {
+        throw new IllegalArgumentException("Two patches of the circle have the id " + id);
+      }
+      newSlotsById[id] = i;
+    }
+    size = newSlots.length;
+    slots = newSlots;
+    slotsById = newSlotsById;
+    removedSlots = new int[size + 1];
+    nextSlots = new int[size];
+    previousSlots = new int[size];
+    for (int i = 0; i < size; i++) {
+      nextSlots[i] = (i + 1) % size;
+      previousSlots[i] = (i + size - 1) % size;
+    }
+    firstSlot = size == 0 ? -1 : 0;
+    this.neutralToken = size == 0 || neutralToken >= size ? 0 : neutralToken;
+    neutralSlot = size == 0 ? -1 : this.neutralToken;
+  }
+
+  /**
+   * Replace the patches of the circle (used to restore a game state)
+   *
+   * @param patches      (List < Patch >) the patches in circle order
+   * @param neutralToken (int) index of the neutral token in the list
+   */
+  void restore(List<Patch> patches, int neutralToken) {
+    Objects.requireNonNull(patches);
+    relink(patches, neutralToken);
   }
 
   /**
@@ -46,7 +121,13 @@ public class CirclePatches {
    * @return (List < Patch >)
    */
   public List<Patch> getPatches() {
-    return new ArrayList<>(patches);
+    var patches = new ArrayList<Patch>(size);
+    int slot = firstSlot;
+    for (int i = 0; i < size; i++) {
+      patches.add(slots[slot]);
+      slot = nextSlots[slot];
+    }
+    return patches;
   }
 
   /**
@@ -59,36 +140,93 @@ public class CirclePatches {
   }
 
   /**
-   * Shuffle the circle of patches
+   * Shuffle the circle of patches with a random generator, the same order for the same seed
+   * The game has no unseeded shuffle: a game is reproduced from the seed of its generator
+   * (for a Random, the order is the one of Collections.shuffle)
+   *
+   * @param random (RandomGenerator) the random generator
+   */
+  public void shuffle(RandomGenerator random) {
+    Objects.requireNonNull(random);
+    var ring = getRing();
+    shuffle(ring, random);
+    var patches = new ArrayList<Patch>(size);
+    for (var id : ring) {
+      patches.add(slots[slotsById[id]]);
+    }
+    relink(patches, getNeutralToken());
+  }
+
+  /**
+   * Place the neutral token on the smallest patch
    */
-  public void shuffle() {
-    Collections.shuffle(patches);
+  public void placeNeutralToken() {
+    if (size == 0) {
+      throw new NoSuchElementException("The circle is empty");
+    }
+    var ring = getRing();
+    neutralToken = neutralToken(ring, id -> slots[slotsById[id]].getNumberOfBlocks());
+    neutralSlot = slotsById[ring[neutralToken]];
   }
 
   /**
-   * Return the smallest patch in the circle
+   * Return the ids of the patches in circle order
    *
-   * @return (Patch) the smallest patch
+   * @return (int[])
    */
-  private Patch getSmallestPatch() {
-    return patches.stream().min(Comparator.comparingInt(Patch::getNumberOfBlocks)).orElseThrow();
+  private int[] getRing() {
+    var ring = new int[size];
+    int slot = firstSlot;
+    for (int i = 0; i < size; i++) {
+      ring[i] = slots[slot].id();
+      slot = nextSlots[slot];
+    }
+    return ring;
   }
 
   /**
-   * Return the index of the smallest patch in the circle
+   * Shuffle a ring of patch ids with a random generator (Fisher-Yates), the same order for the same seed
+   * This is the shuffle of the circles of patches, shared by the games dealt without a CirclePatches
    *
-   * @return (int) the index of the smallest patch
+   * @param ring   (int[]) the ids of the patches in circle order, shuffled in place
+   * @param random (RandomGenerator) the random generator
    */
-  private int getSmallestPatchIndex() {
-    return patches.indexOf(getSmallestPatch());
+  public static void shuffle(int[] ring, RandomGenerator random) {
+    Objects.requireNonNull(ring);
+    Objects.requireNonNull(random);
+    for (int i = ring.length; i > 1; i--) {
+      int j = random.nextInt(i);
+      int id = ring[i - 1];
+      ring[i - 1] = ring[j];
+      ring[j] = id;
+    }
   }
 
   /**
-   * Place the neutral token on the smallest patch
+   * Return the index of the neutral token of a ring of patch ids: just after the first smallest patch
+   * This is the placement of the neutral token of the circles of patches, shared by the games dealt without
+   * a CirclePatches
+   *
+   * @param ring     (int[]) the ids of the patches in circle order, not empty
+   * @param nbBlocks (IntUnaryOperator) the number of blocks of a patch, by id
+   * @return (int)
    */
-  public void placeNeutralToken() {
-    int smallestPatchIndex = getSmallestPatchIndex();
-    neutralToken = smallestPatchIndex == patches.size() - 1 ? 0 : smallestPatchIndex + 1;
+  public static int neutralToken(int[] ring, IntUnaryOperator nbBlocks) {
+    Objects.requireNonNull(ring);
+    Objects.requireNonNull(nbBlocks);
+    if (ring.length == 0) {
+      throw new NoSuchElementException("The circle is empty");
+    }
+    int smallest = 0;
+    int smallestBlocks = nbBlocks.applyAsInt(ring[0]);
+    for (int i = 1; i < ring.length; i++) {
+      int blocks = nbBlocks.applyAsInt(ring[i]);
+      if (blocks < smallestBlocks) {
+        smallest = i;
+        smallestBlocks = blocks;
+      }
+    }
+    return (smallest + 1) % ring.length;
   }
 
   /**
@@ -99,18 +237,35 @@ public class CirclePatches {
    */
   public List<Patch> getNextPatches(int n) {
     List<Patch> nextPatches = new ArrayList<>();
-    int j;
-    for (int i = neutralToken; i < neutralToken + n; i++) {
-      if (i >= patches.size()) {
-        j = i - patches.size();
-      } else {
-        j = i;
-      }
-      nextPatches.add(patches.get(j));
+    int slot = neutralSlot;
+    for (int i = 0; i < n && size > 0; i++) {
+      nextPatches.add(slots[slot]);
+      slot = nextSlots[slot];
     }
     return nextPatches;
   }
 
+  /**
+   * Return the patch at the given index after the neutral token, without creating a list
+   * The index 0 is the patch just after the neutral token
+   *
+   * @param index (int) index of the patch
+   * @return (Patch)
+   */
+  public Patch getNextPatch(int index) {
+    if (index < 0) {
+      throw new IllegalArgumentException("Index must be positive");
+    }
+    if (size == 0) {
+      throw new NoSuchElementException("The circle is empty");
+    }
+    int slot = neutralSlot;
+    for (int i = 0; i < index; i++) {
+      slot = nextSlots[slot];
+    }
+    return slots[slot];
+  }
+
   /**
    * Return the max height of a list of patches
    *
@@ -123,36 +278,62 @@ public class CirclePatches {
   }
 
   /**
-   * Return the index of a patch in the circle
+   * Remove a patch from the circle
+   * The neutral token is moved to the place of the patch (on the next patch)
+   * The slot of the patch is found by its id and its index from the removed slots, without walking the circle
    *
-   * @param patch (Patch) the patch
-   * @return (int) the index of the patch
+   * @param patch (Patch) the patch to remove
    */
-  private int getPatchIndex(Patch patch) {
+  public void removePatch(Patch patch) {
     Objects.requireNonNull(patch);
-    if (patches.contains(patch)) {
-      return patches.indexOf(patch);
+    int id = patch.id();
+    if (id < 0 || id >= slotsById.length || slotsById[id] < 0) {
+      throw new IllegalArgumentException("The patch is not in the circle");
     }
-    for (var p : patches) {
-      if (patch.id() == p.id()) {
-        return patches.indexOf(p);
-      }
+    int slot = slotsById[id];
+    slotsById[id] = -1;
+    int position = slot - countRemovedSlots(slot);
+    markRemoved(slot);
+    size--;
+    if (size == 0) {
+      firstSlot = -1;
+      neutralSlot = -1;
+      neutralToken = 0;
+      return;
+    }
+    int next = nextSlots[slot];
+    int previous = previousSlots[slot];
+    nextSlots[previous] = next;
+    previousSlots[next] = previous;
+    if (firstSlot == slot) {
+      firstSlot = next;
     }
-    return -1;
+    neutralSlot = next;
+    neutralToken = position % size;
   }
 
   /**
-   * Remove a patch from the circle
+   * Return the number of removed slots before a slot
    *
-   * @param patch (Patch) the patch to remove
+   * @param slot (int) the slot
+   * @return (int)
    */
-  public void removePatch(Patch patch) {
-    Objects.requireNonNull(patch);
-    int index = getPatchIndex(patch);
-    neutralToken = index;
-    patches.remove(index);
-    if (neutralToken == patches.size()) {
-      neutralToken = 0;
+  private int countRemovedSlots(int slot) {
+    int count = 0;
+    for (int i = slot; i > 0; i -= i & -i) {
+      count += removedSlots[i];
+    }
+    return count;
+  }
+
+  /**
+   * Mark a slot as removed
+   *
+   * @param slot (int) the slot
+   */
+  private void markRemoved(int slot) {
+    for (int i = slot + 1; i < removedSlots.length; i += i & -i) {
+      removedSlots[i]++;
     }
   }
 
@@ -162,7 +343,7 @@ public class CirclePatches {
    * @return (boolean)
    */
   public boolean isEmpty() {
-    return patches.isEmpty();
+    return size == 0;
   }
 
   /**
@@ -172,6 +353,6 @@ public class CirclePatches {
    * @return (int) number of patches available
    */
   public int getNbPatches(int nbPatch) {
-    return Math.min(patches.size(), nbPatch);
+    return Math.min(size, nbPatch);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,387 @@
+package fr.uge.patchwork.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Class for an archive of game records, read through memory mapped buffers
+ * An archive is a pair of append-only files:
+ * FORMAT:
+ * - the data file: a header (magic number and version, 8 bytes), then the records in the binary format of
+ * GameRecord, one after the other
+ * - the index file (path of the data file followed by .idx): for each game, the offset of the end of its record
+ * in the data file (big-endian long)
+ * The id of a game is its index in the archive, so a record is found in O(1) from two offsets of the index.
+ * A record is written and forced to the storage before its offset, so the records left without offset by an
+ * interrupted writer are ignored by the readers and overwritten by the next writer.
+ * The data file is mapped by segments that overlap by the maximum size of a record, so each record is read
+ * from a single buffer
+ */
+public final class GameArchive implements Closeable {
+  /**
+   * Maximum number of bytes of a record in an archive
+   */
+  public static final int MAX_RECORD_SIZE = 1 << 16;
+  private static final int MAGIC = 0x50574741;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int SEGMENT_SIZE = 1 << 30;
+
+  private final FileChannel data;
+  private final MappedByteBuffer[] segments;
+  private final MappedByteBuffer index;
+  private final long dataSize;
+  private final int nbGames;
+
+  /**
+   * Init an archive on its opened files
+   *
+   * @param data     (FileChannel) the data file
+   * @param segments (MappedByteBuffer[]) the segments of the data file
+   * @param index    (MappedByteBuffer) the index file
+   * @param dataSize (long) the size of the data file
+   * @param nbGames  (int) the number of games of the index
+   */
+  private GameArchive(FileChannel data, MappedByteBuffer[] segments, MappedByteBuffer index, long dataSize, int nbGames) {
+    this.data = data;
+    this.segments = segments;
+    this.index = index;
+    this.dataSize = dataSize;
+    this.nbGames = nbGames;
+  }
+
+  /**
+   * Return the path of the index of an archive
+   *
+   * @param path (Path) the path of the data file of the archive
+   * @return (Path)
+   */
+  public static Path indexPath(Path path) {
+    Objects.requireNonNull(path);
+    return path.resolveSibling(path.getFileName() + ".idx");
+  }
+
+  /**
+   * Open an archive to read the games it holds when it is opened
+   *
+   * @param path (Path) the path of the data file of the archive
+   * @return (GameArchive)
+   * @throws IOException if the files cannot be read or are not an archive
+   */
+  public static GameArchive open(Path path) throws IOException {
+    Objects.requireNonNull(path);
+    var data = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long dataSize = data.size();
+      checkHeader(data);
+      MappedByteBuffer index;
+      long indexSize;
+      try (var indexChannel = FileChannel.open(indexPath(path), StandardOpenOption.READ)) {
+        indexSize = indexChannel.size() - indexChannel.size() % Long.BYTES;
+        if (indexSize > Integer.MAX_VALUE) {
+          throw new IOException("Too many games in the archive " + path);
+        }
+        index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexSize);
+      }
+      int nbGames = (int) (indexSize / Long.BYTES);
+      if (nbGames > 0 && index.getLong((nbGames - 1) * Long.BYTES) > dataSize) {
+        throw new IOException("The index of the archive " + path + " refers to missing records");
+      }
+      var segments = new MappedByteBuffer[(int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+      for (int i = 0; i < segments.length; i++) {
+        long start = (long) i * SEGMENT_SIZE;
+        segments[i] = data.map(FileChannel.MapMode.READ_ONLY, start, Math.min(dataSize - start, SEGMENT_SIZE + MAX_RECORD_SIZE));
+      }
+      return new GameArchive(data, segments, index, dataSize, nbGames);
+    } catch (IOException | RuntimeException e) {
+      data.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Check the header of the data file of an archive
+   *
+   * @param data (FileChannel) the data file
+   * @throws IOException if the file cannot be read or is not an archive
+   */
+  private static void checkHeader(FileChannel data) throws IOException {
+    var header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining() && data.read(header, header.position()) > 0) {
+      // read the whole header
+    }
+    header.flip();
+    if (header.remaining() != HEADER_SIZE || header.getInt() != MAGIC) {
+      throw new IOException("Not a game archive");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unknown version of game archive: " + version);
+    }
+  }
+
+  /**
+   * Return the number of games of the archive
+   *
+   * @return (int)
+   */
+  public int getNbGames() {
+    return nbGames;
+  }
+
+  /**
+   * Return the offset of the end of the record of a game in the data file
+   *
+   * @param id (int) id of the game, -1 for the end of the header
+   * @return (long)
+   */
+  private long getEnd(int id) {
+    return id < 0 ? HEADER_SIZE : index.getLong(id * Long.BYTES);
+  }
+
+  /**
+   * Return the bytes of the record of a game in the binary format, without copy
+   *
+   * @param id (int) id of the game
+   * @return (ByteBuffer) a read-only buffer from the record to its end
+   */
+  public ByteBuffer getBytes(int id) {
+    Objects.checkIndex(id, nbGames);
+    long start = getEnd(id - 1);
+    long end = getEnd(id);
+    if (start > end || end > dataSize || end - start > MAX_RECORD_SIZE) {
+      throw new IllegalStateException("Corrupted index of game archive at game " + id);
+    }
+    int segment = (int) (start / SEGMENT_SIZE);
+    return segments[segment].slice((int) (start - (long) segment * SEGMENT_SIZE), (int) (end - start)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Return the record of a game
+   *
+   * @param id (int) id of the game
+   * @return (GameRecord)
+   */
+  public GameRecord get(int id) {
+    var buffer = getBytes(id);
+    var record = GameRecord.read(buffer);
+    if (buffer.hasRemaining()) {
+      throw new IllegalStateException("Corrupted record of game archive at game " + id);
+    }
+    return record;
+  }
+
+  /**
+   * Read the records of the games of the archive, in the order of their ids
+   *
+   * @param consumer (Consumer < GameRecord >) the consumer of the records
+   */
+  public void forEach(Consumer<? super GameRecord> consumer) {
+    Objects.requireNonNull(consumer);
+    for (int id = 0; id < nbGames; id++) {
+      consumer.accept(get(id));
+    }
+  }
+
+  /**
+   * Close the data file of the archive, the mapped buffers are released once they are unreachable
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    data.close();
+  }
+
+  /**
+   * Class for the writer of an archive: the records are appended after the games already in the archive
+   * Only one writer can write an archive at a time: the writer holds an exclusive lock on the index file
+   */
+  public static final class Writer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer dataBuffer;
+    private final ByteBuffer indexBuffer;
+    private long dataSize;
+    private int nbGames;
+
+    /**
+     * Init a writer on its opened files
+     *
+     * @param data     (FileChannel) the data file
+     * @param index    (FileChannel) the index file
+     * @param dataSize (long) the size of the data file up to the last game
+     * @param nbGames  (int) the number of games of the archive
+     */
+    private Writer(FileChannel data, FileChannel index, long dataSize, int nbGames) {
+      this.data = data;
+      this.index = index;
+      this.dataBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.indexBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.dataSize = dataSize;
+      this.nbGames = nbGames;
+    }
+
+    /**
+     * Open the writer of an archive, the archive is created if it doesn't exist
+     * The records left without offset by an interrupted writer are removed
+     *
+     * @param path (Path) the path of the data file of the archive
+     * @return (Writer)
+     * @throws IOException if the files cannot be written or are not an archive, or if another writer has
+     *                     the archive open
+     */
+    public static Writer open(Path path) throws IOException {
+      Objects.requireNonNull(path);
+      var index = FileChannel.open(indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      FileChannel data = null;
+      try {
+        lock(index, path);
+        data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (data.size() == 0) {
+          var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+          while (header.hasRemaining()) {
+            data.write(header, header.position());
+          }
+          index.truncate(0);
+        } else {
+          checkHeader(data);
+        }
+        long indexSize = index.size() - index.size() % Long.BYTES;
+        if (indexSize / Long.BYTES > Integer.MAX_VALUE) {
+          throw new IOException("Too many games in the archive " + path);
+        }
+        long dataSize = HEADER_SIZE;
+        if (indexSize > 0) {
+          var last = ByteBuffer.allocate(Long.BYTES);
+          while (last.hasRemaining() && index.read(last, indexSize - Long.BYTES + last.position()) > 0) {
+            // read the whole offset
+          }
+          dataSize = last.flip().getLong();
+          if (dataSize < HEADER_SIZE || dataSize > data.size()) {
+            throw new IOException("The index of the archive " + path + " refers to missing records");
+          }
+        }
+        index.truncate(indexSize);
+        data.truncate(dataSize);
+        data.position(dataSize);
+        index.position(indexSize);
+        return new Writer(data, index, dataSize, (int) (indexSize / Long.BYTES));
+      } catch (IOException | RuntimeException e) {
+        index.close();
+        if (data != null) {
+          data.close();
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Take the exclusive lock of the writer on the index file of an archive, released when the file is closed
+     *
+     * @param index (FileChannel) the index file
+     * @param path  (Path) the path of the data file of the archive
+     * @throws IOException if another writer, in this process or in another one, holds the lock
+     */
+    private static void lock(FileChannel index, Path path) throws IOException {
+      FileLock lock;
+      try {
+        lock = index.tryLock();
+      } catch (OverlappingFileLockException e) {
+        lock = null;
+      }
+      if (lock == null) {
+        throw new IOException("The archive " + path + " is already open by another writer");
+      }
+    }
+
+    /**
+     * Return the number of games of the archive, the appended ones included
+     *
+     * @return (int)
+     */
+    public int getNbGames() {
+      return nbGames;
+    }
+
+    /**
+     * Append the record of a game to the archive and return its id
+     * The record is in the archive for the readers opened after a flush
+     *
+     * @param record (GameRecord) the record
+     * @return (int)
+     * @throws IOException if the files cannot be written
+     */
+    public int append(GameRecord record) throws IOException {
+      Objects.requireNonNull(record);
+      int size = record.getEncodedSize();
+      if (size > MAX_RECORD_SIZE) {
+        throw new IllegalArgumentException("The record is too large for an archive: " + size + " bytes");
+      }
+      if (nbGames == Integer.MAX_VALUE) {
+        throw new IllegalStateException("The archive is full");
+      }
+      if (dataBuffer.remaining() < size || indexBuffer.remaining() < Long.BYTES) {
+        flush();
+      }
+      record.write(dataBuffer);
+      dataSize += size;
+      indexBuffer.putLong(dataSize);
+      return nbGames++;
+    }
+
+    /**
+     * Write the appended records to the files, the records before their offsets
+     * The records are forced to the storage before their offsets are written, so after a crash of the system
+     * the index never refers to a lost record (the last offsets may be lost, and their records ignored)
+     *
+     * @throws IOException if the files cannot be written
+     */
+    public void flush() throws IOException {
+      if (dataBuffer.position() == 0) {
+        return;
+      }
+      write(data, dataBuffer);
+      data.force(false);
+      write(index, indexBuffer);
+    }
+
+    /**
+     * Write a buffer at the position of a file and clear it
+     *
+     * @param channel (FileChannel) the file
+     * @param buffer  (ByteBuffer) the buffer
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    /**
+     * Flush the appended records and close the files of the archive
+     *
+     * @throws IOException if the files cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+      try (data; index) {
+        flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,675 @@
+package fr.uge.patchwork.game;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for a mutable game played with packed moves, with the rules of BasicGame and AdvancedGame
+ * Every applied move pushes a compact entry on an undo log, so that a search can apply and undo moves
+ * in place without copying the state nor allocating
+ * The circle of patches is a ring of slots linked in both directions, a removed slot keeps its links
+ * so that it can be put back by undo
+ * The Zobrist hash of the state (see ZobristHash) is updated by each move and restored by undo
+ */
+public final class GameEngine {
+  private static final int NB_PLAYERS = GameState.NB_PLAYERS;
+  private static final int POSITION = GameState.POSITION;
+  private static final int MONEY = GameState.MONEY;
+  private static final int EARNINGS = GameState.EARNINGS;
+  private static final int PLAYER_SIZE = GameState.PLAYER_SIZE;
+
+  private static final int UNDO_MOVE = 0;
+  private static final int UNDO_PLAYER = 1;
+  private static final int UNDO_POSITION = 2;
+  private static final int UNDO_MONEY = 3;
+  private static final int UNDO_EARNINGS = 4;
+  private static final int UNDO_SLOT = 5;
+  private static final int UNDO_FIRST_SLOT = 6;
+  private static final int UNDO_NEUTRAL_SLOT = 7;
+  private static final int UNDO_LEATHER = 8;
+  private static final int UNDO_SPECIAL_TILE_OWNER = 9;
+  private static final int UNDO_SIZE = 10;
+
+  private final GameRules rules;
+  private final int[] players;
+  private final long[] quilts;
+  private final int[][] placements;
+  private final int[] nbPlacements;
+  private final int[] ringIds;
+  private final int[] nextSlots;
+  private final int[] previousSlots;
+  private int ringSize;
+  private int firstSlot;
+  private int neutralSlot;
+  private final long[] leatherPatches;
+  private int specialTileOwner;
+  private int currentPlayer;
+  private boolean leatherPhase;
+  private int[] undoLog;
+  private long[] hashLog;
+  private int undoSize;
+  private long hash;
+
+  /**
+   * Init an engine on a state of a game
+   *
+   * @param state (GameState) the state
+   */
+  public GameEngine(GameState state) {
+    Objects.requireNonNull(state);
+    if (state.getRingSize() > 0 && (state.getNeutralToken() < 0 || state.getNeutralToken() >= state.getRingSize())) {
+      throw new IllegalArgumentException("The neutral token must be in the circle");
+    }
+    this.rules = state.getRules();
+    this.players = state.players().clone();
+    this.quilts = state.quilts().clone();
+    int capacity = rules.getQuiltWidth() * rules.getQuiltHeight();
+    this.placements = new int[NB_PLAYERS][capacity];
+    this.nbPlacements = new int[NB_PLAYERS];
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      nbPlacements[i] = state.getNbPlacements(i);
+      System.arraycopy(state.placements()[i], 0, placements[i], 0, nbPlacements[i]);
+    }
+    this.ringIds = state.ring().clone();
+    this.ringSize = ringIds.length;
+    this.nextSlots = new int[ringSize];
+    this.previousSlots = new int[ringSize];
+    for (int i = 0; i < ringSize; i++) {
+      nextSlots[i] = (i + 1) % ringSize;
+      previousSlots[i] = (i + ringSize - 1) % ringSize;
+    }
+    this.firstSlot = ringSize == 0 ? -1 : 0;
+    this.neutralSlot = ringSize == 0 ? -1 : state.getNeutralToken();
+    this.leatherPatches = state.leatherPatches().clone();
+    this.specialTileOwner = state.getSpecialTileOwner();
+    this.currentPlayer = state.getCurrentPlayer();
+    this.undoLog = new int[UNDO_SIZE * 64];
+    this.hashLog = new long[64];
+    this.hash = ZobristHash.of(state);
+  }
+
+  /**
+   * Init a copy of an engine (the undo log is not copied)
+   *
+   * @param engine (GameEngine) the engine to copy
+   */
+  private GameEngine(GameEngine engine) {
+    this.rules = engine.rules;
+    this.players = engine.players.clone();
+    this.quilts = engine.quilts.clone();
+    this.placements = new int[NB_PLAYERS][];
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      placements[i] = engine.placements[i].clone();
+    }
+    this.nbPlacements = engine.nbPlacements.clone();
+    this.ringIds = engine.ringIds;
+    this.nextSlots = engine.nextSlots.clone();
+    this.previousSlots = engine.previousSlots.clone();
+    this.ringSize = engine.ringSize;
+    this.firstSlot = engine.firstSlot;
+    this.neutralSlot = engine.neutralSlot;
+    this.leatherPatches = engine.leatherPatches.clone();
+    this.specialTileOwner = engine.specialTileOwner;
+    this.currentPlayer = engine.currentPlayer;
+    this.leatherPhase = engine.leatherPhase;
+    this.undoLog = new int[UNDO_SIZE * 64];
+    this.hashLog = new long[64];
+    this.hash = engine.hash;
+  }
+
+  /**
+   * Return a copy of the engine, without the undo log
+   *
+   * @return (GameEngine)
+   */
+  public GameEngine copy() {
+    return new GameEngine(this);
+  }
+
+  /**
+   * Return the state of the game
+   * A state can't be taken while a leather patch waits to be placed
+   *
+   * @return (GameState)
+   */
+  public GameState snapshot() {
+    if (leatherPhase) {
+      throw new IllegalStateException("A leather patch must be placed before taking a snapshot");
+    }
+    var ring = new int[ringSize];
+    int neutralToken = 0;
+    int slot = firstSlot;
+    for (int i = 0; i < ringSize; i++) {
+      if (slot == neutralSlot) {
+        neutralToken = i;
+      }
+      ring[i] = ringIds[slot];
+      slot = nextSlots[slot];
+    }
+    var statePlacements = new int[NB_PLAYERS][];
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      statePlacements[i] = Arrays.copyOf(placements[i], nbPlacements[i]);
+    }
+    return new GameState(rules, players.clone(), quilts.clone(), ring, neutralToken, leatherPatches.clone(),
+            specialTileOwner, statePlacements);
+  }
+
+  /**
+   * Apply a move for the current player
+   *
+   * @param move (Move) the move
+   */
+  public void apply(Move move) {
+    Objects.requireNonNull(move);
+    apply(move.pack());
+  }
+
+  /**
+   * Apply a packed move for the current player
+   * After a purchase or a pass that crosses a leather patch placed by the rules, the same player
+   * must place the leather patch before the turn ends
+   *
+   * @param move (int) the packed move
+   */
+  public void apply(int move) {
+    var kind = Move.getKind(move);
+    if (leatherPhase != (kind == Move.Kind.LEATHER)) {
+      throw new IllegalArgumentException(leatherPhase ? "A leather patch must be placed" : "No leather patch to place");
+    }
+    int player = currentPlayer;
+    int offset = player * PLAYER_SIZE;
+    checkMove(player, kind, move);
+    int log = pushUndo(move, player);
+    switch (kind) {
+      case LEATHER -> {
+        place(player, rules.getLeatherPatch().id(), Move.getPlacement(move));
+        leatherPhase = false;
+        hash ^= ZobristHash.leatherPhase();
+        endTurn(player);
+        return;
+      }
+      case BUY -> buy(player, offset, Move.getSlot(move), Move.getPlacement(move), log);
+      case PASS -> pass(offset);
+    }
+    int from = undoLog[log + UNDO_POSITION];
+    int to = players[offset + POSITION];
+    if (from < to) {
+      if (rules.countButtons(from, to) > 0) {
+        players[offset + MONEY] += players[offset + EARNINGS];
+      }
+      int leather = findLeatherPatch(from, to);
+      if (leather >= 0) {
+        leatherPatches[leather / Long.SIZE] &= ~(1L << leather);
+        undoLog[log + UNDO_LEATHER] = leather;
+        hash ^= ZobristHash.leatherPatch(leather);
+        leatherPhase = rules.placesLeatherPatches() && canPlace(player, rules.getLeatherPatch().id());
+        if (leatherPhase) {
+          hash ^= ZobristHash.leatherPhase();
+        }
+      }
+    }
+    hash ^= ZobristHash.position(player, from) ^ ZobristHash.position(player, to)
+            ^ ZobristHash.money(player, undoLog[log + UNDO_MONEY]) ^ ZobristHash.money(player, players[offset + MONEY])
+            ^ ZobristHash.earnings(player, undoLog[log + UNDO_EARNINGS]) ^ ZobristHash.earnings(player, players[offset + EARNINGS]);
+    if (!leatherPhase) {
+      endTurn(player);
+    }
+  }
+
+  /**
+   * Check that a packed move can be played by a player
+   *
+   * @param player (int) index of the player
+   * @param kind   (Move.Kind) kind of the move
+   * @param move   (int) packed move
+   */
+  private void checkMove(int player, Move.Kind kind, int move) {
+    switch (kind) {
+      case LEATHER -> {
+        if (Move.getSlot(move) != 0) {
+          throw new IllegalArgumentException("Invalid move " + move);
+        }
+        if (!fits(player, rules.getLeatherPatch().id(), Move.getPlacement(move))) {
+          throw new IllegalArgumentException("The leather patch doesn't fit with this placement");
+        }
+      }
+      case BUY -> {
+        if (Move.getSlot(move) >= Math.min(GameRules.NB_NEXT_PATCHES, ringSize)) {
+          throw new IllegalArgumentException("No patch in the slot " + Move.getSlot(move));
+        }
+        var patch = rules.getPatch(ringIds[getNextSlot(Move.getSlot(move))]);
+        if (patch.price() > getMoney(player) || !fits(player, patch.id(), Move.getPlacement(move))) {
+          throw new IllegalArgumentException("The patch " + patch.id() + " can't be bought with this placement");
+        }
+      }
+      case PASS -> {
+        if (move != Move.PASS_MOVE) {
+          throw new IllegalArgumentException("Invalid move " + move);
+        }
+      }
+    }
+  }
+
+  /**
+   * Push the undo entry of a move and return its index in the undo log
+   *
+   * @param move   (int) packed move
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  private int pushUndo(int move, int player) {
+    if (undoSize + UNDO_SIZE > undoLog.length) {
+      undoLog = Arrays.copyOf(undoLog, undoLog.length * 2);
+      hashLog = Arrays.copyOf(hashLog, hashLog.length * 2);
+    }
+    int log = undoSize;
+    hashLog[log / UNDO_SIZE] = hash;
+    int offset = player * PLAYER_SIZE;
+    undoLog[log + UNDO_MOVE] = move;
+    undoLog[log + UNDO_PLAYER] = player;
+    undoLog[log + UNDO_POSITION] = players[offset + POSITION];
+    undoLog[log + UNDO_MONEY] = players[offset + MONEY];
+    undoLog[log + UNDO_EARNINGS] = players[offset + EARNINGS];
+    undoLog[log + UNDO_SLOT] = -1;
+    undoLog[log + UNDO_FIRST_SLOT] = firstSlot;
+    undoLog[log + UNDO_NEUTRAL_SLOT] = neutralSlot;
+    undoLog[log + UNDO_LEATHER] = -1;
+    undoLog[log + UNDO_SPECIAL_TILE_OWNER] = specialTileOwner;
+    undoSize += UNDO_SIZE;
+    return log;
+  }
+
+  /**
+   * Buy a patch of the circle and place it on the quilt board of a player
+   *
+   * @param player    (int) index of the player
+   * @param offset    (int) offset of the player in the players array
+   * @param nextIndex (int) index of the patch after the neutral token
+   * @param placement (int) index of the placement in the placement table of the patch
+   * @param log       (int) index of the undo entry of the move
+   */
+  private void buy(int player, int offset, int nextIndex, int placement, int log) {
+    int slot = getNextSlot(nextIndex);
+    var patch = rules.getPatch(ringIds[slot]);
+    place(player, patch.id(), placement);
+    players[offset + MONEY] -= patch.price();
+    players[offset + EARNINGS] += patch.earnings();
+    players[offset + POSITION] = Math.min(players[offset + POSITION] + patch.forwardBlocks(), rules.getTrackSize() - 1);
+    undoLog[log + UNDO_SLOT] = slot;
+    removeSlot(slot);
+  }
+
+  /**
+   * Move the time token of a player after the time token the furthest on the track, with one button by square
+   *
+   * @param offset (int) offset of the player in the players array
+   */
+  private void pass(int offset) {
+    int max = 0;
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      max = Math.max(max, players[i * PLAYER_SIZE + POSITION]);
+    }
+    int position = players[offset + POSITION];
+    if (position <= max) {
+      players[offset + MONEY] += max - position;
+      players[offset + POSITION] = Math.min(max + 1, rules.getTrackSize() - 1);
+    }
+  }
+
+  /**
+   * End the turn of a player: give him the special tile if he completed its square, then find the next player
+   *
+   * @param player (int) index of the player
+   */
+  private void endTurn(int player) {
+    if (specialTileOwner < 0 && rules.hasSpecialTile()
+            && rules.containsSpecialTile(quilts[2 * player], quilts[2 * player + 1])) {
+      specialTileOwner = player;
+      hash ^= ZobristHash.specialTile(player);
+    }
+    currentPlayer = 0;
+    for (int i = 1; i < NB_PLAYERS; i++) {
+      if (players[i * PLAYER_SIZE + POSITION] < players[currentPlayer * PLAYER_SIZE + POSITION]) {
+        currentPlayer = i;
+      }
+    }
+  }
+
+  /**
+   * Undo the last applied move
+   */
+  public void undo() {
+    if (undoSize == 0) {
+      throw new IllegalStateException("No move to undo");
+    }
+    undoSize -= UNDO_SIZE;
+    int log = undoSize;
+    hash = hashLog[log / UNDO_SIZE];
+    int move = undoLog[log + UNDO_MOVE];
+    int player = undoLog[log + UNDO_PLAYER];
+    int offset = player * PLAYER_SIZE;
+    var kind = Move.getKind(move);
+    players[offset + POSITION] = undoLog[log + UNDO_POSITION];
+    players[offset + MONEY] = undoLog[log + UNDO_MONEY];
+    players[offset + EARNINGS] = undoLog[log + UNDO_EARNINGS];
+    int slot = undoLog[log + UNDO_SLOT];
+    if (slot >= 0) {
+      unplace(player, ringIds[slot], Move.getPlacement(move));
+      nextSlots[previousSlots[slot]] = slot;
+      previousSlots[nextSlots[slot]] = slot;
+      ringSize++;
+    } else if (kind == Move.Kind.LEATHER) {
+      unplace(player, rules.getLeatherPatch().id(), Move.getPlacement(move));
+    }
+    firstSlot = undoLog[log + UNDO_FIRST_SLOT];
+    neutralSlot = undoLog[log + UNDO_NEUTRAL_SLOT];
+    int leather = undoLog[log + UNDO_LEATHER];
+    if (leather >= 0) {
+      leatherPatches[leather / Long.SIZE] |= 1L << leather;
+    }
+    specialTileOwner = undoLog[log + UNDO_SPECIAL_TILE_OWNER];
+    currentPlayer = player;
+    leatherPhase = kind == Move.Kind.LEATHER;
+  }
+
+  /**
+   * Return the number of moves that can be undone
+   *
+   * @return (int)
+   */
+  public int getNbUndoMoves() {
+    return undoSize / UNDO_SIZE;
+  }
+
+  /**
+   * Return the slot of the patch at the given index after the neutral token
+   *
+   * @param index (int) index after the neutral token
+   * @return (int)
+   */
+  private int getNextSlot(int index) {
+    int slot = neutralSlot;
+    for (int i = 0; i < index; i++) {
+      slot = nextSlots[slot];
+    }
+    return slot;
+  }
+
+  /**
+   * Remove a slot of the ring, the neutral token moves on the next slot
+   * The links of the removed slot are kept for undo
+   *
+   * @param slot (int) the slot
+   */
+  private void removeSlot(int slot) {
+    hash ^= ZobristHash.neutralToken(ringIds[neutralSlot]);
+    ringSize--;
+    if (ringSize == 0) {
+      hash ^= ZobristHash.link(ringIds[slot], ringIds[slot]);
+      firstSlot = -1;
+      neutralSlot = -1;
+      return;
+    }
+    int previous = previousSlots[slot];
+    int next = nextSlots[slot];
+    hash ^= ZobristHash.link(ringIds[previous], ringIds[slot]) ^ ZobristHash.link(ringIds[slot], ringIds[next])
+            ^ ZobristHash.link(ringIds[previous], ringIds[next]) ^ ZobristHash.neutralToken(ringIds[next]);
+    nextSlots[previous] = next;
+    previousSlots[next] = previous;
+    if (slot == firstSlot) {
+      firstSlot = next;
+    }
+    neutralSlot = next;
+  }
+
+  /**
+   * Return the index of the first leather patch left between two positions of the time track (both included), -1 if none
+   *
+   * @param from (int) first position
+   * @param to   (int) last position
+   * @return (int)
+   */
+  private int findLeatherPatch(int from, int to) {
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      int position = rules.getLeatherPosition(i);
+      if (position > to) {
+        return -1;
+      }
+      if (position >= from && (leatherPatches[i / Long.SIZE] & 1L << i) != 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return true if a placement of a patch fits on the quilt board of a player
+   *
+   * @param player    (int) index of the player
+   * @param id        (int) id of the patch
+   * @param placement (int) index of the placement in the placement table of the patch
+   * @return (boolean)
+   */
+  public boolean fits(int player, int id, int placement) {
+    var table = rules.getPlacementTable(id);
+    return placement < table.size()
+            && (quilts[2 * player] & table.getLowMask(placement)) == 0
+            && (quilts[2 * player + 1] & table.getHighMask(placement)) == 0;
+  }
+
+  /**
+   * Return true if a patch fits somewhere on the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @param id     (int) id of the patch
+   * @return (boolean)
+   */
+  public boolean canPlace(int player, int id) {
+    var table = rules.getPlacementTable(id);
+    long low = quilts[2 * player];
+    long high = quilts[2 * player + 1];
+    for (int i = 0; i < table.size(); i++) {
+      if ((low & table.getLowMask(i)) == 0 && (high & table.getHighMask(i)) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Place a patch on the quilt board of a player
+   *
+   * @param player    (int) index of the player
+   * @param id        (int) id of the patch
+   * @param placement (int) index of the placement in the placement table of the patch
+   */
+  private void place(int player, int id, int placement) {
+    var table = rules.getPlacementTable(id);
+    quilts[2 * player] |= table.getLowMask(placement);
+    quilts[2 * player + 1] |= table.getHighMask(placement);
+    hash ^= ZobristHash.squares(player, table.getLowMask(placement), table.getHighMask(placement));
+    placements[player][nbPlacements[player]++] = GameState.packPlacement(id, placement);
+  }
+
+  /**
+   * Remove the last placed patch of the quilt board of a player
+   *
+   * @param player    (int) index of the player
+   * @param id        (int) id of the patch
+   * @param placement (int) index of the placement in the placement table of the patch
+   */
+  private void unplace(int player, int id, int placement) {
+    var table = rules.getPlacementTable(id);
+    quilts[2 * player] &= ~table.getLowMask(placement);
+    quilts[2 * player + 1] &= ~table.getHighMask(placement);
+    nbPlacements[player]--;
+  }
+
+  /**
+   * Return the Zobrist hash of the state of the game
+   *
+   * @return (long)
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Return the rules of the game
+   *
+   * @return (GameRules)
+   */
+  public GameRules getRules() {
+    return rules;
+  }
+
+  /**
+   * Return the index of the player who plays the next move
+   *
+   * @return (int)
+   */
+  public int getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * Return true if the current player must place a leather patch
+   *
+   * @return (boolean)
+   */
+  public boolean isLeatherPhase() {
+    return leatherPhase;
+  }
+
+  /**
+   * Return true if the game is over (every player at the end of the time track or no patch left)
+   *
+   * @return (boolean)
+   */
+  public boolean isFinished() {
+    if (leatherPhase) {
+      return false;
+    }
+    if (ringSize == 0) {
+      return true;
+    }
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      if (players[i * PLAYER_SIZE + POSITION] != rules.getTrackSize() - 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the position of a player on the time track
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getPosition(int player) {
+    return players[player * PLAYER_SIZE + POSITION];
+  }
+
+  /**
+   * Return the money of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getMoney(int player) {
+    return players[player * PLAYER_SIZE + MONEY];
+  }
+
+  /**
+   * Return the earnings of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getEarnings(int player) {
+    return players[player * PLAYER_SIZE + EARNINGS];
+  }
+
+  /**
+   * Return the low long of the filled squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (long)
+   */
+  public long getQuiltLow(int player) {
+    return quilts[2 * player];
+  }
+
+  /**
+   * Return the high long of the filled squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (long)
+   */
+  public long getQuiltHigh(int player) {
+    return quilts[2 * player + 1];
+  }
+
+  /**
+   * Return the number of empty squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getNbEmptySquares(int player) {
+    return rules.getQuiltWidth() * rules.getQuiltHeight() - Long.bitCount(quilts[2 * player]) - Long.bitCount(quilts[2 * player + 1]);
+  }
+
+  /**
+   * Return the score of a player with the earnings of the special tile if the player owns it
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getFinalScore(int player) {
+    return getMoney(player) - getNbEmptySquares(player)
+            + (specialTileOwner == player ? rules.getSpecialTileEarnings() : 0);
+  }
+
+  /**
+   * Return the number of patches left in the circle
+   *
+   * @return (int)
+   */
+  public int getRingSize() {
+    return ringSize;
+  }
+
+  /**
+   * Return the id of the patch at the given index after the neutral token
+   *
+   * @param index (int) index after the neutral token, the index 0 is the patch just after the neutral token
+   * @return (int)
+   */
+  public int getNextPatchId(int index) {
+    if (ringSize == 0) {
+      throw new IllegalStateException("No patch left");
+    }
+    return ringIds[getNextSlot(index % ringSize)];
+  }
+
+  /**
+   * Return true if a leather patch is still on the time track
+   *
+   * @param index (int) index of the leather patch (in position order)
+   * @return (boolean)
+   */
+  public boolean hasLeatherPatch(int index) {
+    return (leatherPatches[index / Long.SIZE] & 1L << index) != 0;
+  }
+
+  /**
+   * Return the index of the owner of the special tile, -1 if not owned
+   *
+   * @return (int)
+   */
+  public int getSpecialTileOwner() {
+    return specialTileOwner;
+  }
+}
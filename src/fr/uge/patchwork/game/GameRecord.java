@@ -0,0 +1,386 @@
+package fr.uge.patchwork.game;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for the record of a game played on a GameEngine: the deal (circle of patches with the neutral token
+ * and money of the players) and the packed moves of the game, leather patches included
+ * The record is written in a compact binary format of unsigned varints (7 bits per byte, the high bit set
+ * on every byte but the last one):
+ * FORMAT:
+ * - version of the format (byte), then flags (byte): 1 if the rules place the leather patches and have a special tile
+ * - money of the players, number of patches of the circle, index of the neutral token, ids of the patches
+ * - number of moves, then each move: placement * 5 + 0 for a pass, 1 for a leather patch, 2 + slot for a purchase
+ * The placement is the index in the placement table of the patch, whose orientations are in the canonical order
+ * of ShapeRegistry (version 1 followed the order of registration, which could differ from one run to the next)
+ * A pass takes one byte and a purchase or a leather patch two bytes, about 110 bytes for an advanced game
+ */
+public final class GameRecord {
+  /**
+   * Version of the binary format
+   */
+  public static final int VERSION = 2;
+  private static final int ADVANCED_FLAG = 1;
+  private static final int NB_TAGS = 2 + GameRules.NB_NEXT_PATCHES;
+  private static final int LEATHER_TAG = 1;
+  private static final int BUY_TAG = 2;
+
+  private final boolean advanced;
+  private final int money;
+  private final int[] ring;
+  private final int neutralToken;
+  private final int[] moves;
+
+  /**
+   * Init a record, the arrays are not copied
+   *
+   * @param advanced     (boolean) true if the rules place the leather patches and have a special tile
+   * @param money        (int) money of each player at the start of the game
+   * @param ring         (int[]) ids of the patches of the circle at the start of the game
+   * @param neutralToken (int) index of the neutral token in the circle
+   * @param moves        (int[]) packed moves of the game
+   */
+  private GameRecord(boolean advanced, int money, int[] ring, int neutralToken, int[] moves) {
+    this.advanced = advanced;
+    this.money = money;
+    this.ring = ring;
+    this.neutralToken = neutralToken;
+    this.moves = moves;
+  }
+
+  /**
+   * Return the record of a game played from a state at the start of the game
+   *
+   * @param start (GameState) the state at the start of the game
+   * @param moves (int[]) the packed moves played from the start, copied
+   * @return (GameRecord)
+   */
+  public static GameRecord of(GameState start, int[] moves) {
+    Objects.requireNonNull(start);
+    Objects.requireNonNull(moves);
+    var rules = start.getRules();
+    for (int i = 0; i < GameState.NB_PLAYERS; i++) {
+      if (start.getPosition(i) != 0 || start.getEarnings(i) != 0 || start.getNbPlacements(i) != 0
+              || start.getMoney(i) != start.getMoney(0)) {
+        throw new IllegalArgumentException("A record starts from the state at the start of a game");
+      }
+    }
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      if (!start.hasLeatherPatch(i)) {
+        throw new IllegalArgumentException("A record starts from the state at the start of a game");
+      }
+    }
+    var ring = new int[start.getRingSize()];
+    for (int i = 0; i < ring.length; i++) {
+      ring[i] = start.getRingPatch(i);
+    }
+    return new GameRecord(rules.placesLeatherPatches(), start.getMoney(0), ring, start.getNeutralToken(), moves.clone());
+  }
+
+  /**
+   * Return true if the game follows the rules of the advanced game (leather patches placed and special tile)
+   *
+   * @return (boolean)
+   */
+  public boolean isAdvanced() {
+    return advanced;
+  }
+
+  /**
+   * Return the money of each player at the start of the game
+   *
+   * @return (int)
+   */
+  public int getMoney() {
+    return money;
+  }
+
+  /**
+   * Return the number of patches of the circle at the start of the game
+   *
+   * @return (int)
+   */
+  public int getRingSize() {
+    return ring.length;
+  }
+
+  /**
+   * Return the id of a patch of the circle at the start of the game
+   *
+   * @param index (int) index of the patch in the circle
+   * @return (int)
+   */
+  public int getRingPatch(int index) {
+    return ring[index];
+  }
+
+  /**
+   * Return the index of the neutral token in the circle at the start of the game
+   *
+   * @return (int)
+   */
+  public int getNeutralToken() {
+    return neutralToken;
+  }
+
+  /**
+   * Return the number of moves of the game
+   *
+   * @return (int)
+   */
+  public int getNbMoves() {
+    return moves.length;
+  }
+
+  /**
+   * Return a packed move of the game
+   *
+   * @param index (int) index of the move
+   * @return (int)
+   */
+  public int getMove(int index) {
+    return moves[index];
+  }
+
+  /**
+   * Return the state at the start of the game
+   *
+   * @param rules (GameRules) the rules of the game
+   * @return (GameState)
+   */
+  public GameState getStart(GameRules rules) {
+    Objects.requireNonNull(rules);
+    if (rules.placesLeatherPatches() != advanced) {
+      throw new IllegalArgumentException("The record was played with the rules of the " + (advanced ? "advanced" : "basic") + " game");
+    }
+    return GameState.initial(rules, money, ring, neutralToken);
+  }
+
+  /**
+   * Return the number of bytes of the record in the binary format
+   *
+   * @return (int)
+   */
+  public int getEncodedSize() {
+    int size = 2 + varintSize(money) + varintSize(ring.length) + varintSize(neutralToken) + varintSize(moves.length);
+    for (var id : ring) {
+      size += varintSize(id);
+    }
+    for (var move : moves) {
+      size += varintSize(encodeMove(move));
+    }
+    return size;
+  }
+
+  /**
+   * Write the record in the binary format at the position of a buffer
+   *
+   * @param buffer (ByteBuffer) the buffer, with getEncodedSize() bytes remaining at least
+   */
+  public void write(ByteBuffer buffer) {
+    Objects.requireNonNull(buffer);
+    buffer.put((byte) VERSION);
+    buffer.put((byte) (advanced ? ADVANCED_FLAG : 0));
+    writeVarint(buffer, money);
+    writeVarint(buffer, ring.length);
+    writeVarint(buffer, neutralToken);
+    for (var id : ring) {
+      writeVarint(buffer, id);
+    }
+    writeVarint(buffer, moves.length);
+    for (var move : moves) {
+      writeVarint(buffer, encodeMove(move));
+    }
+  }
+
+  /**
+   * Return the record in the binary format
+   *
+   * @return (byte[])
+   */
+  public byte[] toBytes() {
+    var bytes = new byte[getEncodedSize()];
+    write(ByteBuffer.wrap(bytes));
+    return bytes;
+  }
+
+  /**
+   * Read a record in the binary format from the position of a buffer, the position is moved after the record
+   *
+   * @param buffer (ByteBuffer) the buffer
+   * @return (GameRecord)
+   */
+  public static GameRecord read(ByteBuffer buffer) {
+    Objects.requireNonNull(buffer);
+    try {
+      int version = buffer.get();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unknown version of game record: " + version);
+      }
+      int flags = buffer.get();
+      if ((flags & ~ADVANCED_FLAG) != 0) {
+        throw new IllegalArgumentException("Unknown flags of game record: " + flags);
+      }
+      int money = readVarint(buffer);
+      var ring = new int[checkLength(readVarint(buffer), buffer)];
+      int neutralToken = readVarint(buffer);
+      for (int i = 0; i < ring.length; i++) {
+        ring[i] = readVarint(buffer);
+      }
+      var moves = new int[checkLength(readVarint(buffer), buffer)];
+      for (int i = 0; i < moves.length; i++) {
+        moves[i] = decodeMove(readVarint(buffer));
+      }
+      return new GameRecord(flags == ADVANCED_FLAG, money, ring, neutralToken, moves);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated game record", e);
+    }
+  }
+
+  /**
+   * Return a record from its binary format
+   *
+   * @param bytes (byte[]) the record in the binary format
+   * @return (GameRecord)
+   */
+  public static GameRecord fromBytes(byte[] bytes) {
+    Objects.requireNonNull(bytes);
+    var buffer = ByteBuffer.wrap(bytes);
+    var record = read(buffer);
+    if (buffer.hasRemaining()) {
+      throw new IllegalArgumentException("Trailing bytes after the game record");
+    }
+    return record;
+  }
+
+  /**
+   * Return a length read from a buffer, checked against the bytes left (each element takes one byte at least)
+   *
+   * @param length (int) the length
+   * @param buffer (ByteBuffer) the buffer
+   * @return (int)
+   */
+  private static int checkLength(int length, ByteBuffer buffer) {
+    if (length > buffer.remaining()) {
+      throw new IllegalArgumentException("Truncated game record");
+    }
+    return length;
+  }
+
+  /**
+   * Return the code of a packed move in the binary format
+   *
+   * @param move (int) the packed move
+   * @return (int)
+   */
+  private static int encodeMove(int move) {
+    int tag = switch (Move.getKind(move)) {
+      case PASS -> 0;
+      case LEATHER -> LEATHER_TAG;
+      case BUY -> BUY_TAG + Move.getSlot(move);
+    };
+    return Move.getPlacement(move) * NB_TAGS + tag;
+  }
+
+  /**
+   * Return the packed move of a code of the binary format
+   *
+   * @param code (int) the code
+   * @return (int)
+   */
+  private static int decodeMove(int code) {
+    int tag = code % NB_TAGS;
+    int placement = code / NB_TAGS;
+    if (tag == 0) {
+      if (placement != 0) {
+        throw new IllegalArgumentException("Invalid move in game record: " + code);
+      }
+      return Move.PASS_MOVE;
+    }
+    if (placement > 0xFFFF) {
+      throw new IllegalArgumentException("Invalid move in game record: " + code);
+    }
+    return tag == LEATHER_TAG ? Move.leather(placement) : Move.buy(tag - BUY_TAG, placement);
+  }
+
+  /**
+   * Return the number of bytes of an unsigned varint
+   *
+   * @param value (int) the value, positive
+   * @return (int)
+   */
+  private static int varintSize(int value) {
+    return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+  }
+
+  /**
+   * Write an unsigned varint in a buffer
+   *
+   * @param buffer (ByteBuffer) the buffer
+   * @param value  (int) the value, positive
+   */
+  private static void writeVarint(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Read an unsigned varint from a buffer
+   *
+   * @param buffer (ByteBuffer) the buffer
+   * @return (int)
+   */
+  private static int readVarint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = buffer.get();
+      if (shift == 28 && (b & 0xF8) != 0) {
+        throw new IllegalArgumentException("Varint out of range in game record");
+      }
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint too long in game record");
+  }
+
+  /**
+   * Return true if the object is a record of the same game
+   *
+   * @param o (Object) the object
+   * @return (boolean)
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof GameRecord record && advanced == record.advanced && money == record.money
+            && neutralToken == record.neutralToken && Arrays.equals(ring, record.ring) && Arrays.equals(moves, record.moves);
+  }
+
+  /**
+   * Return the hash code of the record
+   *
+   * @return (int)
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(advanced, money, neutralToken, Arrays.hashCode(ring), Arrays.hashCode(moves));
+  }
+
+  /**
+   * Return a string representation of the record
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return "GameRecord{" + (advanced ? "advanced" : "basic") + ", money=" + money + ", " + ring.length
+            + " patches, " + moves.length + " moves}";
+  }
+}
@@ -0,0 +1,63 @@
+package fr.uge.patchwork.game;
+
+import java.util.Objects;
+
+/**
+ * Class for the replay of game records on a GameEngine
+ * The rules are built once for every record of the same game, so a replay only allocates its engine
+ */
+public final class GameReplayer {
+  private final GameRules rules;
+
+  /**
+   * Init a replayer of the records of a game
+   *
+   * @param rules (GameRules) the rules of the game of the records
+   */
+  public GameReplayer(GameRules rules) {
+    this.rules = Objects.requireNonNull(rules);
+  }
+
+  /**
+   * Return the rules of the game of the records
+   *
+   * @return (GameRules)
+   */
+  public GameRules getRules() {
+    return rules;
+  }
+
+  /**
+   * Return an engine after the first moves of a record
+   * The engine can undo the replayed moves, back to the start of the game
+   *
+   * @param record  (GameRecord) the record
+   * @param nbMoves (int) number of moves to replay
+   * @return (GameEngine)
+   */
+  public GameEngine replay(GameRecord record, int nbMoves) {
+    Objects.requireNonNull(record);
+    if (nbMoves < 0 || nbMoves > record.getNbMoves()) {
+      throw new IllegalArgumentException("The record has " + record.getNbMoves() + " moves");
+    }
+    var engine = new GameEngine(record.getStart(rules));
+    for (int i = 0; i < nbMoves; i++) {
+      if (engine.isFinished()) {
+        throw new IllegalArgumentException("The move " + i + " of the record is played after the end of the game");
+      }
+      engine.apply(record.getMove(i));
+    }
+    return engine;
+  }
+
+  /**
+   * Return an engine at the end of a record
+   *
+   * @param record (GameRecord) the record
+   * @return (GameEngine)
+   */
+  public GameEngine replay(GameRecord record) {
+    Objects.requireNonNull(record);
+    return replay(record, record.getNbMoves());
+  }
+}
@@ -0,0 +1,352 @@
+package fr.uge.patchwork.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Class for the rules of a game, shared by every state of the game
+ * (time track, patches of the game, size of the quilt boards and special tile)
+ */
+public final class GameRules {
+  /**
+   * Number of patches a player can choose from after the neutral token
+   */
+  public static final int NB_NEXT_PATCHES = 3;
+
+  private final int trackSize;
+  private final ButtonIndex buttonIndex;
+  private final int[] leatherPositions;
+  private final Patch[] patchesById;
+  private final PlacementTable[] placementTables;
+  private final Patch leatherPatch;
+  private final int nbCirclePatches;
+  private final int quiltWidth;
+  private final int quiltHeight;
+  private final int specialTileSize;
+  private final int specialTileEarnings;
+  private final long[] specialTileWindows;
+  private final boolean placesLeatherPatches;
+
+  /**
+   * Init the rules of a game
+   *
+   * @param centralBoard         (CentralBoard) central board of the game
+   * @param patches              (List<Patch>) every patch of the game, in any orientation
+   * @param quiltWidth           (int) width of the quilt boards
+   * @param quiltHeight          (int) height of the quilt boards
+   * @param specialTile          (SpecialTile) special tile of the game, null if there is none
+   * @param placesLeatherPatches (boolean) true if the leather patches found are placed on the quilt board
+   */
+  public GameRules(CentralBoard centralBoard, List<Patch> patches, int quiltWidth, int quiltHeight,
+                   SpecialTile specialTile, boolean placesLeatherPatches) {
+    Objects.requireNonNull(centralBoard);
+    Objects.requireNonNull(patches);
+    this.trackSize = centralBoard.getCentralBoardSize();
+    this.buttonIndex = centralBoard.getButtonIndex();
+    var leathers = new ArrayList<Integer>();
+    Patch leather = null;
+    for (int i = 0; i < trackSize; i++) {
+      var square = centralBoard.getCentralBoardSquare(i);
+      if (square.hasLeatherPatch()) {
+        leathers.add(i);
+        leather = square.getLeatherPatch();
+      }
+    }
+    this.leatherPositions = leathers.stream().mapToInt(Integer::intValue).toArray();
+    this.leatherPatch = leather != null ? leather : new Patch(0, "*", 0, 0, 0, 0, false, -1, -1, 0);
+    int maxId = leatherPatch.id();
+    for (var patch : patches) {
+      if (patch.id() < 0) {
+        throw new IllegalArgumentException("The ids of the patches must be positive");
+      }
+      maxId = Math.max(maxId, patch.id());
+    }
+    this.patchesById = new Patch[maxId + 1];
+    for (var patch : patches) {
+      patchesById[patch.id()] = basePatch(patch);
+    }
+    patchesById[leatherPatch.id()] = leatherPatch;
+    int nbPatches = 0;
+    for (var patch : patchesById) {
+      if (patch != null && patch != leatherPatch) {
+        nbPatches++;
+      }
+    }
+    this.nbCirclePatches = nbPatches;
+    this.placementTables = new PlacementTable[patchesById.length];
+    for (var patch : patchesById) {
+      if (patch != null) {
+        placementTables[patch.id()] = patch.shape().getPlacementTable(quiltWidth, quiltHeight);
+      }
+    }
+    this.quiltWidth = quiltWidth;
+    this.quiltHeight = quiltHeight;
+    this.specialTileSize = specialTile == null ? 0 : specialTile.getSize();
+    this.specialTileEarnings = specialTile == null ? 0 : specialTile.getEarnings();
+    this.specialTileWindows = squareWindows(specialTileSize, quiltWidth, quiltHeight);
+    this.placesLeatherPatches = placesLeatherPatches;
+  }
+
+  /**
+   * Return the masks of every square of size x size on a quilt board (low and high longs one after the other)
+   *
+   * @param size   (int) size of the square, 0 for none
+   * @param width  (int) width of the quilt board
+   * @param height (int) height of the quilt board
+   * @return (long[])
+   */
+  private static long[] squareWindows(int size, int width, int height) {
+    if (size <= 0 || size > width || size > height) {
+      return new long[0];
+    }
+    var windows = new long[2 * (width - size + 1) * (height - size + 1)];
+    int window = 0;
+    for (int x = 0; x <= width - size; x++) {
+      for (int y = 0; y <= height - size; y++) {
+        for (int i = 0; i < size; i++) {
+          for (int j = 0; j < size; j++) {
+            int index = (y + i) * width + x + j;
+            windows[window] |= PlacementTable.lowBits(1L, index);
+            windows[window + 1] |= PlacementTable.highBits(1L, index);
+          }
+        }
+        window += 2;
+      }
+    }
+    return windows;
+  }
+
+  /**
+   * Return the rules of the game played with the given objects
+   * With a special tile, these are the rules of the advanced game (the leather patches are placed),
+   * without, the rules of the basic game
+   *
+   * @param players       (List<Player>) the players
+   * @param centralBoard  (CentralBoard) the central board
+   * @param circlePatches (CirclePatches) the circle of patches
+   * @param specialTile   (SpecialTile) the special tile, null if there is none
+   * @return (GameRules)
+   */
+  public static GameRules of(List<Player> players, CentralBoard centralBoard, CirclePatches circlePatches, SpecialTile specialTile) {
+    Objects.requireNonNull(players);
+    Objects.requireNonNull(centralBoard);
+    Objects.requireNonNull(circlePatches);
+    if (players.isEmpty()) {
+      throw new IllegalArgumentException("A game must have players");
+    }
+    var patches = circlePatches.getPatches();
+    for (var player : players) {
+      patches.addAll(player.getQuiltBoard().getPlacedPatches());
+    }
+    var quiltBoard = players.get(0).getQuiltBoard();
+    return new GameRules(centralBoard, patches, quiltBoard.getWidth(), quiltBoard.getHeight(), specialTile, specialTile != null);
+  }
+
+  /**
+   * Return the patch in its loaded orientation (angle 0, not flipped, no coordinates)
+   *
+   * @param patch (Patch) the patch
+   * @return (Patch)
+   */
+  private static Patch basePatch(Patch patch) {
+    if (patch.isFlipped()) {
+      patch = patch.flip();
+    }
+    while (patch.angle() != 0) {
+      patch = patch.rotate();
+    }
+    return patch.setCoords(-1, -1);
+  }
+
+  /**
+   * Return the number of squares of the time track
+   *
+   * @return (int)
+   */
+  public int getTrackSize() {
+    return trackSize;
+  }
+
+  /**
+   * Return the number of buttons between two positions of the time track (both included)
+   *
+   * @param from (int) first position
+   * @param to   (int) last position
+   * @return (int)
+   */
+  public int countButtons(int from, int to) {
+    return buttonIndex.countButtons(from, to);
+  }
+
+  /**
+   * Return the number of leather patches on the time track at the start of the game
+   *
+   * @return (int)
+   */
+  public int getNbLeatherPatches() {
+    return leatherPositions.length;
+  }
+
+  /**
+   * Return the position of a leather patch on the time track
+   *
+   * @param index (int) index of the leather patch (in position order)
+   * @return (int)
+   */
+  public int getLeatherPosition(int index) {
+    return leatherPositions[index];
+  }
+
+  /**
+   * Return the patch used for the leather patches
+   *
+   * @return (Patch)
+   */
+  public Patch getLeatherPatch() {
+    return leatherPatch;
+  }
+
+  /**
+   * Return the number of patches of the circle at the start of the game (every patch of the game but the leather patch)
+   *
+   * @return (int)
+   */
+  public int getNbCirclePatches() {
+    return nbCirclePatches;
+  }
+
+  /**
+   * Return the patch with the given id in its loaded orientation, null if no patch of the game has this id
+   *
+   * @param id (int) id of the patch
+   * @return (Patch)
+   */
+  public Patch getPatch(int id) {
+    if (id < 0 || id >= patchesById.length) {
+      return null;
+    }
+    return patchesById[id];
+  }
+
+  /**
+   * Return the greatest id of the patches of the game
+   *
+   * @return (int)
+   */
+  public int getMaxPatchId() {
+    return patchesById.length - 1;
+  }
+
+  /**
+   * Return the placement table of a patch of the game on the quilt boards
+   *
+   * @param id (int) id of the patch
+   * @return (PlacementTable)
+   */
+  public PlacementTable getPlacementTable(int id) {
+    return placementTables[id];
+  }
+
+  /**
+   * Return the width of the quilt boards
+   *
+   * @return (int)
+   */
+  public int getQuiltWidth() {
+    return quiltWidth;
+  }
+
+  /**
+   * Return the height of the quilt boards
+   *
+   * @return (int)
+   */
+  public int getQuiltHeight() {
+    return quiltHeight;
+  }
+
+  /**
+   * Return true if the game has a special tile
+   *
+   * @return (boolean)
+   */
+  public boolean hasSpecialTile() {
+    return specialTileSize > 0;
+  }
+
+  /**
+   * Return the size of the special tile, 0 if there is none
+   *
+   * @return (int)
+   */
+  public int getSpecialTileSize() {
+    return specialTileSize;
+  }
+
+  /**
+   * Return the earnings of the special tile
+   *
+   * @return (int)
+   */
+  public int getSpecialTileEarnings() {
+    return specialTileEarnings;
+  }
+
+  /**
+   * Return true if the filled squares of a quilt board contain the square of the special tile
+   *
+   * @param low  (long) low long of the filled squares
+   * @param high (long) high long of the filled squares
+   * @return (boolean)
+   */
+  public boolean containsSpecialTile(long low, long high) {
+    for (int i = 0; i < specialTileWindows.length; i += 2) {
+      if ((low & specialTileWindows[i]) == specialTileWindows[i] && (high & specialTileWindows[i + 1]) == specialTileWindows[i + 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the smallest number of empty squares in a square of the size of the special tile on a quilt board,
+   * -1 if the game has no special tile
+   *
+   * @param low  (long) low long of the filled squares
+   * @param high (long) high long of the filled squares
+   * @return (int)
+   */
+  public int countMissingSpecialTileSquares(long low, long high) {
+    int missing = -1;
+    for (int i = 0; i < specialTileWindows.length; i += 2) {
+      int count = Long.bitCount(~low & specialTileWindows[i]) + Long.bitCount(~high & specialTileWindows[i + 1]);
+      if (missing < 0 || count < missing) {
+        missing = count;
+      }
+    }
+    return missing;
+  }
+
+  /**
+   * Return true if the leather patches found are placed on the quilt board
+   *
+   * @return (boolean)
+   */
+  public boolean placesLeatherPatches() {
+    return placesLeatherPatches;
+  }
+
+  /**
+   * Return a string representation of the rules
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return "Track: " + trackSize + ", Buttons: " + buttonIndex.getNbButtons()
+            + ", Leather patches: " + Arrays.toString(leatherPositions)
+            + ", Special tile: " + specialTileSize;
+  }
+}
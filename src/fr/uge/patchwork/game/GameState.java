@@ -0,0 +1,546 @@
+package fr.uge.patchwork.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Class for an immutable snapshot of a game between two turns, stored in primitive arrays
+ * (positions, money and earnings of the players, filled squares and placed patches of their quilt boards,
+ * patches of the circle with the neutral token, leather patches left on the time track
+ * and owner of the special tile)
+ * A state never changes, so forking a state is sharing it; the GameEngine plays moves on a copy of its arrays
+ */
+public final class GameState {
+  /**
+   * Number of players of a game
+   */
+  public static final int NB_PLAYERS = 2;
+  static final int POSITION = 0;
+  static final int MONEY = 1;
+  static final int EARNINGS = 2;
+  static final int PLAYER_SIZE = 3;
+
+  private final GameRules rules;
+  private final int[] players;
+  private final long[] quilts;
+  private final int[] ring;
+  private final int neutralToken;
+  private final long[] leatherPatches;
+  private final int specialTileOwner;
+  private final int[][] placements;
+
+  /**
+   * Init a game state, the arrays are not copied
+   *
+   * @param rules            (GameRules) rules of the game
+   * @param players          (int[]) position, money and earnings of each player
+   * @param quilts           (long[]) low and high longs of the filled squares of each quilt board
+   * @param ring             (int[]) ids of the patches of the circle
+   * @param neutralToken     (int) index of the neutral token in the circle
+   * @param leatherPatches   (long[]) bit set of the leather patches left on the time track
+   * @param specialTileOwner (int) index of the owner of the special tile, -1 if not owned
+   * @param placements       (int[][]) packed placements of the patches of each quilt board
+   */
+  GameState(GameRules rules, int[] players, long[] quilts, int[] ring, int neutralToken, long[] leatherPatches,
+            int specialTileOwner, int[][] placements) {
+    this.rules = rules;
+    this.players = players;
+    this.quilts = quilts;
+    this.ring = ring;
+    this.neutralToken = neutralToken;
+    this.leatherPatches = leatherPatches;
+    this.specialTileOwner = specialTileOwner;
+    this.placements = placements;
+  }
+
+  /**
+   * Return the state of a game played with the given objects
+   *
+   * @param players       (List<Player>) the players
+   * @param centralBoard  (CentralBoard) the central board
+   * @param circlePatches (CirclePatches) the circle of patches
+   * @param specialTile   (SpecialTile) the special tile, null if there is none
+   * @return (GameState)
+   */
+  public static GameState of(List<Player> players, CentralBoard centralBoard, CirclePatches circlePatches, SpecialTile specialTile) {
+    return of(GameRules.of(players, centralBoard, circlePatches, specialTile), players, centralBoard, circlePatches, specialTile);
+  }
+
+  /**
+   * Return the state of a game played with the given objects and rules
+   *
+   * @param rules         (GameRules) the rules of the game
+   * @param players       (List<Player>) the players
+   * @param centralBoard  (CentralBoard) the central board
+   * @param circlePatches (CirclePatches) the circle of patches
+   * @param specialTile   (SpecialTile) the special tile, null if there is none
+   * @return (GameState)
+   */
+  public static GameState of(GameRules rules, List<Player> players, CentralBoard centralBoard, CirclePatches circlePatches, SpecialTile specialTile) {
+    Objects.requireNonNull(rules);
+    Objects.requireNonNull(players);
+    Objects.requireNonNull(centralBoard);
+    Objects.requireNonNull(circlePatches);
+    if (players.size() != NB_PLAYERS) {
+      throw new IllegalArgumentException("A game state has " + NB_PLAYERS + " players");
+    }
+    var values = new int[NB_PLAYERS * PLAYER_SIZE];
+    var quilts = new long[2 * NB_PLAYERS];
+    var placements = new int[NB_PLAYERS][];
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      var player = players.get(i);
+      values[i * PLAYER_SIZE + POSITION] = player.getPosition();
+      values[i * PLAYER_SIZE + MONEY] = player.getMoney();
+      values[i * PLAYER_SIZE + EARNINGS] = player.getEarnings();
+      quilts[2 * i] = player.getQuiltBoard().getLowSquares();
+      quilts[2 * i + 1] = player.getQuiltBoard().getHighSquares();
+      placements[i] = placementsOf(rules, player.getQuiltBoard());
+    }
+    var patches = circlePatches.getPatches();
+    var ring = new int[patches.size()];
+    for (int i = 0; i < ring.length; i++) {
+      ring[i] = patches.get(i).id();
+      if (rules.getPatch(ring[i]) == null) {
+        throw new IllegalArgumentException("The patch " + ring[i] + " is not a patch of the game");
+      }
+    }
+    var leatherPatches = new long[(rules.getNbLeatherPatches() + Long.SIZE - 1) / Long.SIZE];
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      if (centralBoard.getCentralBoardSquare(rules.getLeatherPosition(i)).hasLeatherPatch()) {
+        leatherPatches[i / Long.SIZE] |= 1L << i;
+      }
+    }
+    int owner = specialTile == null || !specialTile.isOwned() ? -1 : players.indexOf(specialTile.getPlayer());
+    int neutralToken = circlePatches.isEmpty() ? 0 : circlePatches.getNeutralToken();
+    return new GameState(rules, values, quilts, ring, neutralToken, leatherPatches, owner, placements);
+  }
+
+  /**
+   * Return the state at the start of a game: players at the start of the time track with the same money,
+   * empty quilt boards, every leather patch on the time track and the special tile not owned
+   *
+   * @param rules        (GameRules) the rules of the game
+   * @param money        (int) money of each player
+   * @param ring         (int[]) ids of the patches of the circle, copied, each patch of the game but the leather
+   *                     patch once
+   * @param neutralToken (int) index of the neutral token in the circle
+   * @return (GameState)
+   */
+  public static GameState initial(GameRules rules, int money, int[] ring, int neutralToken) {
+    Objects.requireNonNull(rules);
+    Objects.requireNonNull(ring);
+    if (money < 0) {
+      throw new IllegalArgumentException("The money of the players must be positive");
+    }
+    if (ring.length != 0 && (neutralToken < 0 || neutralToken >= ring.length)) {
+      throw new IllegalArgumentException("The neutral token must be in the circle");
+    }
+    if (ring.length != rules.getNbCirclePatches()) {
+      throw new IllegalArgumentException("The circle must have the " + rules.getNbCirclePatches() + " patches of the game");
+    }
+    var inRing = new boolean[rules.getMaxPatchId() + 1];
+    for (var id : ring) {
+      if (rules.getPatch(id) == null || id == rules.getLeatherPatch().id()) {
+        throw new IllegalArgumentException("The patch " + id + " is not a patch of the circle");
+      }
+      if (inRing[id]) {
+        throw new IllegalArgumentException("The patch " + id + " is twice in the circle");
+      }
+      inRing[id] = true;
+    }
+    var values = new int[NB_PLAYERS * PLAYER_SIZE];
+    var placements = new int[NB_PLAYERS][];
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      values[i * PLAYER_SIZE + MONEY] = money;
+      placements[i] = new int[0];
+    }
+    var leatherPatches = new long[(rules.getNbLeatherPatches() + Long.SIZE - 1) / Long.SIZE];
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      leatherPatches[i / Long.SIZE] |= 1L << i;
+    }
+    return new GameState(rules, values, new long[2 * NB_PLAYERS], ring.clone(), neutralToken, leatherPatches, -1, placements);
+  }
+
+  /**
+   * Return the packed placements of the patches of a quilt board
+   *
+   * @param rules      (GameRules) the rules of the game
+   * @param quiltBoard (QuiltBoard) the quilt board
+   * @return (int[])
+   */
+  private static int[] placementsOf(GameRules rules, QuiltBoard quiltBoard) {
+    var patches = quiltBoard.getPlacedPatches();
+    var placements = new int[patches.size()];
+    for (int i = 0; i < placements.length; i++) {
+      var patch = patches.get(i);
+      var shape = patch.shape();
+      int index = shape.getPlacementTable(rules.getQuiltWidth(), rules.getQuiltHeight())
+              .indexOf(shape.getOrientationIndex(), patch.x(), patch.y());
+      if (index < 0) {
+        throw new IllegalArgumentException("The patch " + patch.id() + " is out of the quilt board");
+      }
+      placements[i] = packPlacement(patch.id(), index);
+    }
+    return placements;
+  }
+
+  /**
+   * Pack the placement of a patch on a quilt board
+   *
+   * @param id    (int) id of the patch
+   * @param index (int) index of the placement in the placement table of the patch
+   * @return (int)
+   */
+  static int packPlacement(int id, int index) {
+    return id << 16 | index;
+  }
+
+  /**
+   * Restore the state on the objects of the game
+   * The objects must come from the same game, with the players already on the central board.
+   * Leather patches removed from the central board can't be put back.
+   *
+   * @param players       (List<Player>) the players
+   * @param centralBoard  (CentralBoard) the central board
+   * @param circlePatches (CirclePatches) the circle of patches
+   * @param specialTile   (SpecialTile) the special tile, null if there is none
+   */
+  public void restore(List<Player> players, CentralBoard centralBoard, CirclePatches circlePatches, SpecialTile specialTile) {
+    Objects.requireNonNull(players);
+    Objects.requireNonNull(centralBoard);
+    Objects.requireNonNull(circlePatches);
+    if (players.size() != NB_PLAYERS) {
+      throw new IllegalArgumentException("A game state has " + NB_PLAYERS + " players");
+    }
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      var player = players.get(i);
+      player.restore(getPosition(i), getMoney(i), getEarnings(i));
+      var quiltBoard = player.getQuiltBoard();
+      quiltBoard.clear();
+      for (int j = 0; j < getNbPlacements(i); j++) {
+        int placement = getPlacement(i, j);
+        var patch = rules.getPatch(getPlacementPatchId(placement));
+        int packed = rules.getPlacementTable(patch.id()).getPlacement(getPlacementIndex(placement));
+        quiltBoard.addPatch(patch.orient(PlacementTable.getOrientation(packed)), PlacementTable.getX(packed), PlacementTable.getY(packed));
+      }
+      centralBoard.moveToken(player);
+    }
+    for (int i = 0; i < rules.getNbLeatherPatches(); i++) {
+      var square = centralBoard.getCentralBoardSquare(rules.getLeatherPosition(i));
+      if (square.hasLeatherPatch() && !hasLeatherPatch(i)) {
+        centralBoard.removeLeatherPatch(square.getLeatherPatch());
+      } else if (!square.hasLeatherPatch() && hasLeatherPatch(i)) {
+        throw new IllegalStateException("The leather patch " + i + " was already removed from the central board");
+      }
+    }
+    var patches = new ArrayList<Patch>(ring.length);
+    for (var id : ring) {
+      patches.add(rules.getPatch(id));
+    }
+    circlePatches.restore(patches, neutralToken);
+    if (specialTile != null && specialTileOwner >= 0) {
+      var owner = players.get(specialTileOwner);
+      if (!specialTile.isOwned()) {
+        specialTile.setPlayer(owner);
+      } else if (specialTile.getPlayer() != owner) {
+        throw new IllegalStateException("The special tile is owned by another player");
+      }
+    }
+  }
+
+  /**
+   * Return the rules of the game
+   *
+   * @return (GameRules)
+   */
+  public GameRules getRules() {
+    return rules;
+  }
+
+  /**
+   * Return the position of a player on the time track
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getPosition(int player) {
+    return players[player * PLAYER_SIZE + POSITION];
+  }
+
+  /**
+   * Return the money of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getMoney(int player) {
+    return players[player * PLAYER_SIZE + MONEY];
+  }
+
+  /**
+   * Return the earnings of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getEarnings(int player) {
+    return players[player * PLAYER_SIZE + EARNINGS];
+  }
+
+  /**
+   * Return the low long of the filled squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (long)
+   */
+  public long getQuiltLow(int player) {
+    return quilts[2 * player];
+  }
+
+  /**
+   * Return the high long of the filled squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (long)
+   */
+  public long getQuiltHigh(int player) {
+    return quilts[2 * player + 1];
+  }
+
+  /**
+   * Return the number of empty squares of the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getNbEmptySquares(int player) {
+    return rules.getQuiltWidth() * rules.getQuiltHeight() - Long.bitCount(quilts[2 * player]) - Long.bitCount(quilts[2 * player + 1]);
+  }
+
+  /**
+   * Return the score of a player (money minus empty squares)
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getScore(int player) {
+    return getMoney(player) - getNbEmptySquares(player);
+  }
+
+  /**
+   * Return the score of a player with the earnings of the special tile if the player owns it
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getFinalScore(int player) {
+    return getScore(player) + (specialTileOwner == player ? rules.getSpecialTileEarnings() : 0);
+  }
+
+  /**
+   * Return the number of placed patches on the quilt board of a player
+   *
+   * @param player (int) index of the player
+   * @return (int)
+   */
+  public int getNbPlacements(int player) {
+    return placements[player].length;
+  }
+
+  /**
+   * Return a packed placement of the quilt board of a player (see getPlacementPatchId and getPlacementIndex)
+   *
+   * @param player (int) index of the player
+   * @param index  (int) index of the placement (in placement order)
+   * @return (int)
+   */
+  public int getPlacement(int player, int index) {
+    return placements[player][index];
+  }
+
+  /**
+   * Return the id of the patch of a packed placement
+   *
+   * @param placement (int) packed placement
+   * @return (int)
+   */
+  public static int getPlacementPatchId(int placement) {
+    return placement >>> 16;
+  }
+
+  /**
+   * Return the index in the placement table of the patch of a packed placement
+   *
+   * @param placement (int) packed placement
+   * @return (int)
+   */
+  public static int getPlacementIndex(int placement) {
+    return placement & 0xFFFF;
+  }
+
+  /**
+   * Return the number of patches in the circle
+   *
+   * @return (int)
+   */
+  public int getRingSize() {
+    return ring.length;
+  }
+
+  /**
+   * Return the id of a patch of the circle
+   *
+   * @param index (int) index of the patch in the circle
+   * @return (int)
+   */
+  public int getRingPatch(int index) {
+    return ring[index];
+  }
+
+  /**
+   * Return the index of the neutral token in the circle
+   *
+   * @return (int)
+   */
+  public int getNeutralToken() {
+    return neutralToken;
+  }
+
+  /**
+   * Return true if a leather patch of the rules is still on the time track
+   *
+   * @param index (int) index of the leather patch
+   * @return (boolean)
+   */
+  public boolean hasLeatherPatch(int index) {
+    return (leatherPatches[index / Long.SIZE] & 1L << index) != 0;
+  }
+
+  /**
+   * Return the index of the owner of the special tile, -1 if it is not owned
+   *
+   * @return (int)
+   */
+  public int getSpecialTileOwner() {
+    return specialTileOwner;
+  }
+
+  /**
+   * Return the index of the player who plays next (the player with the lowest position, the first one on a tie)
+   *
+   * @return (int)
+   */
+  public int getCurrentPlayer() {
+    int current = 0;
+    for (int i = 1; i < NB_PLAYERS; i++) {
+      if (getPosition(i) < getPosition(current)) {
+        current = i;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Return true if the game is over (every player at the end of the time track or no patch left)
+   *
+   * @return (boolean)
+   */
+  public boolean isFinished() {
+    if (ring.length == 0) {
+      return true;
+    }
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      if (getPosition(i) != rules.getTrackSize() - 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the position, money and earnings of the players (must not be modified)
+   *
+   * @return (int[])
+   */
+  int[] players() {
+    return players;
+  }
+
+  /**
+   * Return the filled squares of the quilt boards (must not be modified)
+   *
+   * @return (long[])
+   */
+  long[] quilts() {
+    return quilts;
+  }
+
+  /**
+   * Return the ids of the patches of the circle (must not be modified)
+   *
+   * @return (int[])
+   */
+  int[] ring() {
+    return ring;
+  }
+
+  /**
+   * Return the bit set of the leather patches left (must not be modified)
+   *
+   * @return (long[])
+   */
+  long[] leatherPatches() {
+    return leatherPatches;
+  }
+
+  /**
+   * Return the packed placements of the quilt boards (must not be modified)
+   *
+   * @return (int[][])
+   */
+  int[][] placements() {
+    return placements;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof GameState other)) {
+      return false;
+    }
+    return rules == other.rules && neutralToken == other.neutralToken && specialTileOwner == other.specialTileOwner
+            && Arrays.equals(players, other.players) && Arrays.equals(quilts, other.quilts)
+            && Arrays.equals(ring, other.ring) && Arrays.equals(leatherPatches, other.leatherPatches)
+            && Arrays.deepEquals(placements, other.placements);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(neutralToken, specialTileOwner, Arrays.hashCode(players), Arrays.hashCode(quilts),
+            Arrays.hashCode(ring), Arrays.hashCode(leatherPatches), Arrays.deepHashCode(placements));
+  }
+
+  /**
+   * Return a string representation of the state
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    var sb = new StringBuilder();
+    for (int i = 0; i < NB_PLAYERS; i++) {
+      sb.append("Player ").append(i + 1)
+              .append(": position ").append(getPosition(i))
+              .append(", money ").append(getMoney(i))
+              .append(", earnings ").append(getEarnings(i))
+              .append(", empty squares ").append(getNbEmptySquares(i))
+              .append("\n");
+    }
+    sb.append("Circle: ").append(Arrays.toString(ring)).append(", neutral token ").append(neutralToken);
+    return sb.toString();
+  }
+}
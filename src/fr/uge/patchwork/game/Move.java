@@ -0,0 +1,149 @@
+package fr.uge.patchwork.game;
+
+import java.util.Objects;
+
+/**
+ * Record for a move of a game played on a GameEngine
+ * A move is packed in an int (kind, slot and placement) so that the engine and the bots never allocate one
+ *
+ * @param kind      (Kind) kind of the move
+ * @param slot      (int) slot of the bought patch after the neutral token (0 to 2), 0 if the move is not a purchase
+ * @param placement (int) index of the placement in the placement table of the patch, 0 if the move is a pass
+ */
+public record Move(Kind kind, int slot, int placement) {
+  /**
+   * Packed move of a pass
+   */
+  public static final int PASS_MOVE = 0;
+
+  private static final int KIND_SHIFT = 24;
+  private static final int SLOT_SHIFT = 16;
+  private static final int PLACEMENT_MASK = 0xFFFF;
+  private static final Kind[] KINDS = Kind.values();
+
+  /**
+   * Enum for the kinds of moves
+   */
+  public enum Kind {
+    /**
+     * The player passes and moves his time token after the next time token
+     */
+    PASS,
+    /**
+     * The player buys one of the next patches and places it on his quilt board
+     */
+    BUY,
+    /**
+     * The player places the leather patch he found on his quilt board
+     */
+    LEATHER
+  }
+
+  public Move {
+    Objects.requireNonNull(kind);
+    if (slot < 0 || slot >= GameRules.NB_NEXT_PATCHES) {
+      throw new IllegalArgumentException("Slot must be between 0 and " + (GameRules.NB_NEXT_PATCHES - 1));
+    }
+    if (placement < 0 || placement > PLACEMENT_MASK) {
+      throw new IllegalArgumentException("Placement must be between 0 and " + PLACEMENT_MASK);
+    }
+  }
+
+  /**
+   * Return the move of a pass
+   *
+   * @return (Move)
+   */
+  public static Move pass() {
+    return new Move(Kind.PASS, 0, 0);
+  }
+
+  /**
+   * Return the packed move of a purchase
+   *
+   * @param slot      (int) slot of the patch after the neutral token
+   * @param placement (int) index of the placement in the placement table of the patch
+   * @return (int)
+   */
+  public static int buy(int slot, int placement) {
+    return Kind.BUY.ordinal() << KIND_SHIFT | slot << SLOT_SHIFT | placement;
+  }
+
+  /**
+   * Return the packed move of the placement of a leather patch
+   *
+   * @param placement (int) index of the placement in the placement table of the leather patch
+   * @return (int)
+   */
+  public static int leather(int placement) {
+    return Kind.LEATHER.ordinal() << KIND_SHIFT | placement;
+  }
+
+  /**
+   * Return the kind of a packed move
+   *
+   * @param move (int) packed move
+   * @return (Kind)
+   * @throws IllegalArgumentException if the move has no valid kind
+   */
+  public static Kind getKind(int move) {
+    int kind = move >>> KIND_SHIFT;
+    if (kind >= KINDS.length) {
+      throw new IllegalArgumentException("Invalid move " + move);
+    }
+    return KINDS[kind];
+  }
+
+  /**
+   * Return the slot of a packed move
+   *
+   * @param move (int) packed move
+   * @return (int)
+   */
+  public static int getSlot(int move) {
+    return (move >>> SLOT_SHIFT) & 0xFF;
+  }
+
+  /**
+   * Return the placement of a packed move
+   *
+   * @param move (int) packed move
+   * @return (int)
+   */
+  public static int getPlacement(int move) {
+    return move & PLACEMENT_MASK;
+  }
+
+  /**
+   * Return the move of a packed move
+   *
+   * @param move (int) packed move
+   * @return (Move)
+   */
+  public static Move unpack(int move) {
+    return new Move(getKind(move), getSlot(move), getPlacement(move));
+  }
+
+  /**
+   * Return the packed move
+   *
+   * @return (int)
+   */
+  public int pack() {
+    return kind.ordinal() << KIND_SHIFT | slot << SLOT_SHIFT | placement;
+  }
+
+  /**
+   * Return a string representation of the move
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return switch (kind) {
+      case PASS -> "Pass";
+      case BUY -> "Buy slot " + slot + " at " + placement;
+      case LEATHER -> "Leather at " + placement;
+    };
+  }
+}
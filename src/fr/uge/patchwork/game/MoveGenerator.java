@@ -0,0 +1,115 @@
+package fr.uge.patchwork.game;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for the generation of the legal moves of a GameEngine
+ * The packed moves are written in a buffer reused from one generation to the next, so that a search
+ * doesn't allocate once the buffer has grown to the largest turn
+ * The placements of a patch come from its placement table, where the orientations of a symmetric shape
+ * that cover the same squares are already removed, so every generated move leads to a different quilt board
+ */
+public final class MoveGenerator {
+  private int[] moves;
+  private int size;
+
+  /**
+   * Init a move generator
+   */
+  public MoveGenerator() {
+    this.moves = new int[256];
+  }
+
+  /**
+   * Generate the legal moves of the current player of an engine and return their number
+   * While a leather patch waits to be placed, the moves are the placements of the leather patch,
+   * else the moves are a pass and the placements of the affordable patches among the next patches
+   * No move is generated once the game is over
+   *
+   * @param engine (GameEngine) the engine
+   * @return (int)
+   */
+  public int generate(GameEngine engine) {
+    Objects.requireNonNull(engine);
+    size = 0;
+    if (engine.isFinished()) {
+      return 0;
+    }
+    var rules = engine.getRules();
+    int player = engine.getCurrentPlayer();
+    if (engine.isLeatherPhase()) {
+      addPlacements(engine, player, rules.getLeatherPatch().id(), -1);
+      return size;
+    }
+    add(Move.PASS_MOVE);
+    int nbSlots = Math.min(GameRules.NB_NEXT_PATCHES, engine.getRingSize());
+    for (int slot = 0; slot < nbSlots; slot++) {
+      var patch = rules.getPatch(engine.getNextPatchId(slot));
+      if (patch.price() <= engine.getMoney(player)) {
+        addPlacements(engine, player, patch.id(), slot);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Add the moves of every placement of a patch that fits on the quilt board of a player
+   *
+   * @param engine (GameEngine) the engine
+   * @param player (int) index of the player
+   * @param id     (int) id of the patch
+   * @param slot   (int) slot of the patch after the neutral token, -1 for the leather patch
+   */
+  private void addPlacements(GameEngine engine, int player, int id, int slot) {
+    var table = engine.getRules().getPlacementTable(id);
+    long low = engine.getQuiltLow(player);
+    long high = engine.getQuiltHigh(player);
+    for (int i = 0; i < table.size(); i++) {
+      if ((low & table.getLowMask(i)) == 0 && (high & table.getHighMask(i)) == 0) {
+        add(slot < 0 ? Move.leather(i) : Move.buy(slot, i));
+      }
+    }
+  }
+
+  /**
+   * Add a packed move to the buffer
+   *
+   * @param move (int) packed move
+   */
+  private void add(int move) {
+    if (size == moves.length) {
+      moves = Arrays.copyOf(moves, size * 2);
+    }
+    moves[size++] = move;
+  }
+
+  /**
+   * Return the number of moves of the last generation
+   *
+   * @return (int)
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return a packed move of the last generation
+   *
+   * @param index (int) index of the move
+   * @return (int)
+   */
+  public int getMove(int index) {
+    Objects.checkIndex(index, size);
+    return moves[index];
+  }
+
+  /**
+   * Return a copy of the packed moves of the last generation
+   *
+   * @return (int[])
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(moves, size);
+  }
+}
@@ -1,6 +1,5 @@
 package fr.uge.patchwork.game;
 
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -16,11 +15,16 @@ import java.util.Objects;
  * @param x             (int) define it to -1 by default
  * @param y             (int) define it to -1 by default
  * @param imageId       (int) id of the image (defined in the file)
+ * @param shape         (PatchShape) compiled shape of the format, resolved once when the patch is built
  */
 public record Patch(int id, String format, int price, int forwardBlocks, int earnings, int angle, boolean isFlipped,
-                    int x, int y, int imageId) {
+                    int x, int y, int imageId, PatchShape shape) {
   public Patch {
     Objects.requireNonNull(format);
+    Objects.requireNonNull(shape);
+    if (!format.equals(shape.getFormat()) && ShapeRegistry.get(format) != shape) {
+      throw new IllegalArgumentException("The shape must be the compiled shape of the format");
+    }
     if (price < 0) {
       throw new IllegalArgumentException("Price must be positive");
     }
@@ -35,6 +39,25 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
     }
   }
 
+  /**
+   * Init a patch, the format is compiled by the ShapeRegistry (then shared by every patch with the same format)
+   *
+   * @param id            (int) id of the patch (unique, defined in the file)
+   * @param format        (String) format of the patch (defined in the file)
+   * @param price         (int) price of the patch (defined in the file)
+   * @param forwardBlocks (int) number of forward blocks (defined in the file)
+   * @param earnings      (int) earnings of the patch (defined in the file)
+   * @param angle         (int) define it to 0 by default
+   * @param isFlipped     (boolean) define it to false by default
+   * @param x             (int) define it to -1 by default
+   * @param y             (int) define it to -1 by default
+   * @param imageId       (int) id of the image (defined in the file)
+   */
+  public Patch(int id, String format, int price, int forwardBlocks, int earnings, int angle, boolean isFlipped,
+               int x, int y, int imageId) {
+    this(id, format, price, forwardBlocks, earnings, angle, isFlipped, x, y, imageId, ShapeRegistry.get(format));
+  }
+
   /**
    * Set the position of the patch and return a new patch
    *
@@ -43,7 +66,29 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (Patch) new patch with the new position set
    */
   public Patch setCoords(int x, int y) {
-    return new Patch(id, format, price, forwardBlocks, earnings, angle, isFlipped, x, y, imageId);
+    return new Patch(id, format, price, forwardBlocks, earnings, angle, isFlipped, x, y, imageId, shape);
+  }
+
+  /**
+   * Return the patch in one of the distinct orientations of its shape
+   * The angle and isFlipped of the returned patch match the orientation
+   *
+   * @param orientation (int) index of the orientation (see PatchShape.getOrientation)
+   * @return (Patch) new patch in the given orientation
+   */
+  public Patch orient(int orientation) {
+    var target = shape.getOrientation(orientation);
+    var patch = this;
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (patch.shape == target) {
+          return patch;
+        }
+        patch = patch.rotate();
+      }
+      patch = patch.flip();
+    }
+    throw new IllegalStateException("Orientation not reachable from the patch");
   }
 
   /**
@@ -52,7 +97,7 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (int) the number of '*' on the patch
    */
   public int getNumberOfBlocks() {
-    return (int) format.chars().filter(c -> c == '*').count();
+    return shape.getNbBlocks();
   }
 
   /**
@@ -62,53 +107,17 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (String) the format of the patch
    */
   public String getFormatLine(int line) {
-    var lines = format.replace(".", " ").split(",");
-    return lines[line];
+    return shape.getLine(line);
   }
 
   /**
-   * Max length of the patch.
-   *
-   * @return (int) the max length of the patch
-   */
-  private int maxLenLinePiece() {
-    return Arrays.stream(format.split(",")).mapToInt(String::length).max().orElse(0);
-  }
-
-  /**
-   * Rotate the patch and return a new patch
+   * Rotate the patch clockwise and return a new patch
    *
    * @return (Patch) new patch with the new angle set
    */
   public Patch rotate() {
-    var newFormat = new StringBuilder();
-    var lines = format.split(",");
-    var maxLen = maxLenLinePiece();
-    for (int i = 0; i < maxLen; i++) {
-      newFormat.append(getColumn(lines, i));
-      newFormat.append(',');
-    }
-    return new Patch(id, newFormat.toString(), price, forwardBlocks, earnings, (angle + 1) % 4, isFlipped, x, y, imageId);
-  }
-
-  /**
-   * Get the column of the patch
-   *
-   * @param lines    (String[]) the lines of the patch
-   * @param colIndex (int) the index of the column
-   * @return (String) the column of the patch
-   */
-  private String getColumn(String[] lines, int colIndex) {
-    Objects.requireNonNull(lines);
-    StringBuilder column = new StringBuilder();
-    for (int j = lines.length - 1; j >= 0; j--) {
-      if (colIndex < lines[j].length()) {
-        column.append(lines[j].charAt(colIndex));
-      } else {
-        column.append(' ');
-      }
-    }
-    return column.toString();
+    var newShape = shape.rotated();
+    return new Patch(id, newShape.getFormat(), price, forwardBlocks, earnings, (angle + 1) % 4, isFlipped, x, y, imageId, newShape);
   }
 
   /**
@@ -117,33 +126,8 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (Patch) new patch with the new isFlipped set
    */
   public Patch flip() {
-    var newFormat = new StringBuilder();
-    var lines = format.split(",");
-    var maxLen = maxLenLinePiece();
-    for (var line : lines) {
-      newFormat.append(getFlippedLine(line, maxLen));
-      newFormat.append(',');
-    }
-    return new Patch(id, newFormat.toString(), price, forwardBlocks, earnings, angle, !isFlipped, x, y, imageId);
-  }
-
-  /**
-   * Get the flipped line of the patch
-   *
-   * @param line   (String) the line of the patch
-   * @param maxLen (int) the max length of the patch
-   * @return (String) the flipped line
-   */
-  private String getFlippedLine(String line, int maxLen) {
-    Objects.requireNonNull(line);
-    StringBuilder flippedLine = new StringBuilder();
-    if (line.length() < maxLen) {
-      flippedLine.append(" ".repeat(maxLen - line.length()));
-    }
-    for (int j = line.length() - 1; j >= 0; j--) {
-      flippedLine.append(line.charAt(j));
-    }
-    return flippedLine.toString();
+    var newShape = shape.mirrored();
+    return new Patch(id, newShape.getFormat(), price, forwardBlocks, earnings, angle, !isFlipped, x, y, imageId, newShape);
   }
 
   /**
@@ -152,7 +136,7 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (int) the height of the patch
    */
   public int getHeight() {
-    return format.split(",").length;
+    return shape.getHeight();
   }
 
   /**
@@ -161,7 +145,7 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (int) the width of the patch
    */
   public int getWidth() {
-    return maxLenLinePiece();
+    return shape.getWidth();
   }
 
   /**
@@ -172,15 +156,7 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
    * @return (boolean)
    */
   public boolean isSquareFilled(int x, int y) {
-    var lines = format.split(",");
-    if (x >= lines.length) {
-      return false;
-    }
-    var line = lines[x];
-    if (y >= line.length()) {
-      return false;
-    }
-    return line.charAt(y) == '*';
+    return shape.isSquareFilled(x, y);
   }
 
 
@@ -219,9 +195,8 @@ public record Patch(int id, String format, int price, int forwardBlocks, int ear
             .append(", Forward blocks: ")
             .append(forwardBlocks)
             .append("\nFormat:\n");
-    var lines = format.replace(".", " ").split(",");
-    for (var line : lines) {
-      sb.append(line).append("\n");
+    for (int i = 0; i < shape.getHeight(); i++) {
+      sb.append(shape.getLine(i)).append("\n");
     }
     return sb.toString();
   }
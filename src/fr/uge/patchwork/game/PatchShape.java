@@ -0,0 +1,318 @@
+package fr.uge.patchwork.game;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class for the compiled form of a patch format
+ * The squares are stored in a bitmask, row by row (bit = row * width + column)
+ * Shapes are created and linked to their rotations and mirror by the ShapeRegistry
+ */
+public final class PatchShape {
+  private final int width;
+  private final int height;
+  private final long squares;
+  private final int nbBlocks;
+  private final String format;
+  private final String[] lines;
+  private PatchShape rotated;
+  private PatchShape counterRotated;
+  private PatchShape mirrored;
+  private PatchShape[] orientations;
+  private int orientationIndex;
+  private PatchShape[] searchOrder;
+  private final ConcurrentHashMap<Long, PlacementTable> placementTables = new ConcurrentHashMap<>();
+
+  /**
+   * Init a patch shape
+   *
+   * @param width   (int) width of the shape
+   * @param height  (int) height of the shape
+   * @param squares (long) bitmask of the filled squares
+   */
+  private PatchShape(int width, int height, long squares) {
+    this.width = width;
+    this.height = height;
+    this.squares = squares;
+    this.nbBlocks = Long.bitCount(squares);
+    this.format = buildFormat();
+    this.lines = format.replace('.', ' ').split(",", -1);
+  }
+
+  /**
+   * Compile a patch format
+   * FORMAT:
+   * - each line of the patch is separated by a ','
+   * - * represents a filled square, any other character an empty one
+   *
+   * @param format (String) format of the patch
+   * @return (PatchShape) the compiled shape, not linked to its orientations
+   */
+  static PatchShape compile(String format) {
+    Objects.requireNonNull(format);
+    var lines = format.split(",");
+    int width = 0;
+    for (var line : lines) {
+      width = Math.max(width, line.length());
+    }
+    if (width * lines.length > Long.SIZE) {
+      throw new IllegalArgumentException("A patch can't have more than " + Long.SIZE + " squares");
+    }
+    long squares = 0;
+    for (int i = 0; i < lines.length; i++) {
+      for (int j = 0; j < lines[i].length(); j++) {
+        if (lines[i].charAt(j) == '*') {
+          squares |= 1L << (i * width + j);
+        }
+      }
+    }
+    return new PatchShape(width, lines.length, squares);
+  }
+
+  /**
+   * Build the canonical format of the shape ('*' and '.' only, every line has the same length)
+   *
+   * @return (String)
+   */
+  private String buildFormat() {
+    var sb = new StringBuilder();
+    for (int i = 0; i < height; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      for (int j = 0; j < width; j++) {
+        sb.append(isSquareFilled(i, j) ? '*' : '.');
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Return the shape rotated clockwise (not linked to its orientations)
+   *
+   * @return (PatchShape)
+   */
+  PatchShape rotate() {
+    long newSquares = 0;
+    for (int i = 0; i < width; i++) {
+      for (int j = 0; j < height; j++) {
+        if (isSquareFilled(height - 1 - j, i)) {
+          newSquares |= 1L << (i * height + j);
+        }
+      }
+    }
+    return new PatchShape(height, width, newSquares);
+  }
+
+  /**
+   * Return the shape mirrored horizontally (not linked to its orientations)
+   *
+   * @return (PatchShape)
+   */
+  PatchShape mirror() {
+    long newSquares = 0;
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        if (isSquareFilled(i, width - 1 - j)) {
+          newSquares |= 1L << (i * width + j);
+        }
+      }
+    }
+    return new PatchShape(width, height, newSquares);
+  }
+
+  /**
+   * Link the shape to its rotations, its mirror and the other orientations of the patch
+   *
+   * @param rotated        (PatchShape) the shape rotated clockwise
+   * @param counterRotated (PatchShape) the shape rotated counterclockwise
+   * @param mirrored       (PatchShape) the shape mirrored horizontally
+   * @param orientations   (PatchShape[]) the distinct orientations of the patch
+   * @param index          (int) index of the shape in the orientations
+   */
+  void link(PatchShape rotated, PatchShape counterRotated, PatchShape mirrored, PatchShape[] orientations, int index) {
+    this.rotated = Objects.requireNonNull(rotated);
+    this.counterRotated = Objects.requireNonNull(counterRotated);
+    this.mirrored = Objects.requireNonNull(mirrored);
+    this.orientations = Objects.requireNonNull(orientations);
+    this.orientationIndex = index;
+  }
+
+  /**
+   * Set the order in which the orientations are searched for a placement, starting from this shape
+   * (this shape then its mirror, rotated clockwise each time, without duplicates)
+   *
+   * @param searchOrder (PatchShape[]) the orientations in search order
+   */
+  void setSearchOrder(PatchShape[] searchOrder) {
+    this.searchOrder = Objects.requireNonNull(searchOrder);
+  }
+
+  /**
+   * Return the width of the shape
+   *
+   * @return (int)
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Return the height of the shape
+   *
+   * @return (int)
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Return the bitmask of the filled squares (bit = row * width + column)
+   *
+   * @return (long)
+   */
+  public long getSquares() {
+    return squares;
+  }
+
+  /**
+   * Return the number of filled squares
+   *
+   * @return (int)
+   */
+  public int getNbBlocks() {
+    return nbBlocks;
+  }
+
+  /**
+   * Return the canonical format of the shape
+   *
+   * @return (String)
+   */
+  public String getFormat() {
+    return format;
+  }
+
+  /**
+   * Return a line of the shape for display ('.' replaced by spaces)
+   *
+   * @param line (int) index of the line
+   * @return (String)
+   */
+  public String getLine(int line) {
+    return lines[line];
+  }
+
+  /**
+   * Return the shape rotated clockwise
+   *
+   * @return (PatchShape)
+   */
+  public PatchShape rotated() {
+    return rotated;
+  }
+
+  /**
+   * Return the shape rotated counterclockwise
+   *
+   * @return (PatchShape)
+   */
+  public PatchShape counterRotated() {
+    return counterRotated;
+  }
+
+  /**
+   * Return the shape mirrored horizontally
+   *
+   * @return (PatchShape)
+   */
+  public PatchShape mirrored() {
+    return mirrored;
+  }
+
+  /**
+   * Return the number of distinct orientations of the shape
+   *
+   * @return (int)
+   */
+  public int getNbOrientations() {
+    return orientations.length;
+  }
+
+  /**
+   * Return the distinct orientation at the given index
+   * The orientations are shared by every shape of the same patch
+   *
+   * @param index (int) index of the orientation
+   * @return (PatchShape)
+   */
+  public PatchShape getOrientation(int index) {
+    return orientations[index];
+  }
+
+  /**
+   * Return the index of the shape in the distinct orientations of the patch
+   *
+   * @return (int)
+   */
+  public int getOrientationIndex() {
+    return orientationIndex;
+  }
+
+  /**
+   * Return the table of every placement of the patch on a quilt board of the given size
+   * The table is built once for each size of quilt board and shared by every orientation of the patch
+   *
+   * @param width  (int) width of the quilt board
+   * @param height (int) height of the quilt board
+   * @return (PlacementTable)
+   */
+  public PlacementTable getPlacementTable(int width, int height) {
+    var root = orientations[0];
+    long size = (long) width << Integer.SIZE | (height & 0xFFFFFFFFL);
+    return root.placementTables.computeIfAbsent(size, key -> PlacementTable.build(root, width, height));
+  }
+
+  /**
+   * Return the number of orientations to search for a placement
+   *
+   * @return (int)
+   */
+  int getSearchOrderSize() {
+    return searchOrder.length;
+  }
+
+  /**
+   * Return the orientation to search at the given step
+   *
+   * @param index (int) step of the search
+   * @return (PatchShape)
+   */
+  PatchShape getSearchOrder(int index) {
+    return searchOrder[index];
+  }
+
+  /**
+   * Return true if the shape is filled at the given row and column
+   *
+   * @param row    (int) row
+   * @param column (int) column
+   * @return (boolean)
+   */
+  public boolean isSquareFilled(int row, int column) {
+    if (row < 0 || column < 0 || row >= height || column >= width) {
+      return false;
+    }
+    return (squares & 1L << (row * width + column)) != 0;
+  }
+
+  /**
+   * Return the string representation of the shape
+   *
+   * @return (String)
+   */
+  @Override
+  public String toString() {
+    return format;
+  }
+}
@@ -0,0 +1,208 @@
+package fr.uge.patchwork.game;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Class for the table of every footprint of a patch on a quilt board
+ * Each entry is a placement (orientation and anchor) with the mask of the squares it covers
+ * on the quilt board (two longs, bit = y * width + x).
+ * The anchors where the patch goes out of the quilt board are excluded,
+ * and two placements covering the same squares are kept only once.
+ * A placement is packed in an int: orientation << 16 | x << 8 | y
+ */
+public final class PlacementTable {
+  private final int width;
+  private final int height;
+  private final long[] lowMasks;
+  private final long[] highMasks;
+  private final int[] placements;
+  private final int[] indexByAnchor;
+
+  /**
+   * Init a placement table
+   *
+   * @param width         (int) width of the quilt board
+   * @param height        (int) height of the quilt board
+   * @param lowMasks      (long[]) low longs of the masks
+   * @param highMasks     (long[]) high longs of the masks
+   * @param placements    (int[]) packed placements
+   * @param indexByAnchor (int[]) index of the entry of each orientation and anchor, -1 if out of the quilt board
+   */
+  private PlacementTable(int width, int height, long[] lowMasks, long[] highMasks, int[] placements, int[] indexByAnchor) {
+    this.width = width;
+    this.height = height;
+    this.lowMasks = lowMasks;
+    this.highMasks = highMasks;
+    this.placements = placements;
+    this.indexByAnchor = indexByAnchor;
+  }
+
+  /**
+   * Build the placement table of every orientation of a shape on a quilt board
+   *
+   * @param shape  (PatchShape) one of the orientations of the patch
+   * @param width  (int) width of the quilt board
+   * @param height (int) height of the quilt board
+   * @return (PlacementTable)
+   */
+  static PlacementTable build(PatchShape shape, int width, int height) {
+    Objects.requireNonNull(shape);
+    int nbAnchors = shape.getNbOrientations() * width * height;
+    var lowMasks = new long[nbAnchors];
+    var highMasks = new long[nbAnchors];
+    var placements = new int[nbAnchors];
+    var indexByAnchor = new int[nbAnchors];
+    Arrays.fill(indexByAnchor, -1);
+    int size = 0;
+    for (int o = 0; o < shape.getNbOrientations(); o++) {
+      var orientation = shape.getOrientation(o);
+      for (int x = 0; x < width; x++) {
+        for (int y = 0; y < height; y++) {
+          long lowMask = 0;
+          long highMask = 0;
+          boolean inside = true;
+          for (int i = 0; i < orientation.getHeight() && inside; i++) {
+            for (int j = 0; j < orientation.getWidth(); j++) {
+              if (orientation.isSquareFilled(i, j)) {
+                if (x + j >= width || y + i >= height) {
+                  inside = false;
+                  break;
+                }
+                int index = (y + i) * width + x + j;
+                lowMask |= lowBits(1L, index);
+                highMask |= highBits(1L, index);
+              }
+            }
+          }
+          if (!inside) {
+            continue;
+          }
+          int entry = 0;
+          while (entry < size && (lowMasks[entry] != lowMask || highMasks[entry] != highMask)) {
+            entry++;
+          }
+          if (entry == size) {
+            lowMasks[size] = lowMask;
+            highMasks[size] = highMask;
+            placements[size] = o << 16 | x << 8 | y;
+            size++;
+          }
+          indexByAnchor[(o * height + y) * width + x] = entry;
+        }
+      }
+    }
+    return new PlacementTable(width, height, Arrays.copyOf(lowMasks, size), Arrays.copyOf(highMasks, size),
+            Arrays.copyOf(placements, size), indexByAnchor);
+  }
+
+  /**
+   * Return the low long of a 128 bits value shifted to the left
+   *
+   * @param bits  (long) value to shift (at most 64 bits)
+   * @param shift (int) number of bits to shift
+   * @return (long)
+   */
+  static long lowBits(long bits, int shift) {
+    return shift < Long.SIZE ? bits << shift : 0;
+  }
+
+  /**
+   * Return the high long of a 128 bits value shifted to the left
+   *
+   * @param bits  (long) value to shift (at most 64 bits)
+   * @param shift (int) number of bits to shift
+   * @return (long)
+   */
+  static long highBits(long bits, int shift) {
+    if (shift == 0) {
+      return 0;
+    }
+    return shift < Long.SIZE ? bits >>> (Long.SIZE - shift) : bits << (shift - Long.SIZE);
+  }
+
+  /**
+   * Return the number of placements in the table
+   *
+   * @return (int)
+   */
+  public int size() {
+    return placements.length;
+  }
+
+  /**
+   * Return the index of the entry of an orientation at an anchor
+   * Return -1 if the patch goes out of the quilt board
+   *
+   * @param orientation (int) index of the orientation
+   * @param x           (int) x coordinate
+   * @param y           (int) y coordinate
+   * @return (int)
+   */
+  public int indexOf(int orientation, int x, int y) {
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      return -1;
+    }
+    return indexByAnchor[(orientation * height + y) * width + x];
+  }
+
+  /**
+   * Return the low long of the mask of an entry
+   *
+   * @param index (int) index of the entry
+   * @return (long)
+   */
+  public long getLowMask(int index) {
+    return lowMasks[index];
+  }
+
+  /**
+   * Return the high long of the mask of an entry
+   *
+   * @param index (int) index of the entry
+   * @return (long)
+   */
+  public long getHighMask(int index) {
+    return highMasks[index];
+  }
+
+  /**
+   * Return the packed placement of an entry
+   *
+   * @param index (int) index of the entry
+   * @return (int)
+   */
+  public int getPlacement(int index) {
+    return placements[index];
+  }
+
+  /**
+   * Return the orientation of a packed placement
+   *
+   * @param placement (int) packed placement
+   * @return (int)
+   */
+  public static int getOrientation(int placement) {
+    return placement >>> 16;
+  }
+
+  /**
+   * Return the x coordinate of a packed placement
+   *
+   * @param placement (int) packed placement
+   * @return (int)
+   */
+  public static int getX(int placement) {
+    return placement >>> 8 & 0xFF;
+  }
+
+  /**
+   * Return the y coordinate of a packed placement
+   *
+   * @param placement (int) packed placement
+   * @return (int)
+   */
+  public static int getY(int placement) {
+    return placement & 0xFF;
+  }
+}
@@ -72,6 +72,19 @@ public class Player {
     return money;
   }
 
+  /**
+   * Set the position, money and earnings of the player (used to restore a game state)
+   *
+   * @param position (int) position of the time token
+   * @param money    (int) money of the player
+   * @param earnings (int) earnings of the player
+   */
+  void restore(int position, int money, int earnings) {
+    this.timeToken = new TimeToken(position, shortName);
+    this.money = money;
+    this.earnings = earnings;
+  }
+
   /**
    * Add money to the player
    *
@@ -119,8 +132,7 @@ public class Player {
    */
   public Patch getPatchByChoice(CirclePatches circlePatches, int nbPatch, int choice) {
     Objects.requireNonNull(circlePatches);
-    List<Patch> patches = circlePatches.getNextPatches(nbPatch);
-    return patches.get(choice - 1);
+    return circlePatches.getNextPatch(choice - 1);
   }
 
   /**
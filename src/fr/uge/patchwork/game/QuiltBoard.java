@@ -1,17 +1,32 @@
 package fr.uge.patchwork.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Class for a quilt board
+ * The squares are stored in a bitboard (two longs, one bit per square, index = y * width + x)
+ * and the patch covering each square is stored in a side array of bytes,
+ * as an index in the list of the placed patches (in placement order, with their coordinates and orientation)
+ * For each square, the size of the largest filled square ending at it (bottom right corner)
+ * is kept up to date by addPatch, so looking for a filled square is O(1)
  */
 public class QuiltBoard {
+  private static final int MAX_SQUARES = 2 * Long.SIZE;
+
   private final int width;
   private final int height;
-  private final ArrayList<ArrayList<QuiltSquare>> quiltBoard;
+  private long lowSquares;
+  private long highSquares;
+  private final byte[] owners;
+  private final byte[] squareSizes;
+  private int largestSquare;
+  private final ArrayList<Patch> patches;
+  private final List<Patch> placedPatches;
 
   /**
    * Init a quilt board
@@ -23,45 +38,109 @@ public class QuiltBoard {
     if (width < 0 || height < 0) {
       throw new IllegalArgumentException("Width and height must be positive");
     }
+    if (width * height > MAX_SQUARES) {
+      throw new IllegalArgumentException("A quilt board can't have more than " + MAX_SQUARES + " squares");
+    }
     this.width = width;
     this.height = height;
-    this.quiltBoard = new ArrayList<>();
-    for (int i = 0; i < height; i++) {
-      ArrayList<QuiltSquare> row = new ArrayList<>();
-      for (int j = 0; j < width; j++) {
-        row.add(new QuiltSquare(false, null));
-      }
-      this.quiltBoard.add(row);
-    }
+    this.owners = new byte[width * height];
+    this.squareSizes = new byte[width * height];
+    this.patches = new ArrayList<>();
+    this.placedPatches = Collections.unmodifiableList(patches);
   }
 
+  /**
+   * Return the index of the square (x, y) in the bitboard
+   *
+   * @param x (int) x coordinate
+   * @param y (int) y coordinate
+   * @return (int)
+   */
+  private int index(int x, int y) {
+    return y * width + x;
+  }
+
+  /**
+   * Return true if the square at the given index is filled
+   *
+   * @param index (int) index of the square
+   * @return (boolean)
+   */
+  private boolean isFilled(int index) {
+    if (index < Long.SIZE) {
+      return (lowSquares & 1L << index) != 0;
+    }
+    return (highSquares & 1L << (index - Long.SIZE)) != 0;
+  }
 
   /**
    * Return true if the patch can be placed on the quilt board
+   * Every distinct orientation of the patch is tried
    *
    * @param patch (Patch) patch to place
    * @return (boolean)
    */
   public boolean canAddPatch(Patch patch) {
     Objects.requireNonNull(patch);
-    for (int i = 0; i < 4; i++) {
-      for (int j = 0; j < 2; j++) {
-        for (int k = 0; k < height; k++) {
-          for (int l = 0; l < width; l++) {
-            if (isValidPlacement(patch, k, l)) {
-              return true;
-            }
-          }
-        }
-        patch = patch.flip();
+    var table = patch.shape().getPlacementTable(width, height);
+    for (int i = 0; i < table.size(); i++) {
+      if (fits(table, i)) {
+        return true;
       }
-      patch = patch.rotate();
     }
     return false;
   }
 
+  /**
+   * Return every valid placement of the patch on the quilt board (every distinct orientation and anchor)
+   * A placement is packed in an int, see PlacementTable.getOrientation, getX and getY
+   * and Patch.orient to get the patch in the orientation of a placement
+   *
+   * @param patch (Patch) patch to place
+   * @return (int[]) packed placements
+   */
+  public int[] legalPlacements(Patch patch) {
+    Objects.requireNonNull(patch);
+    var placements = new int[patch.shape().getPlacementTable(width, height).size()];
+    int size = legalPlacements(patch, placements);
+    return Arrays.copyOf(placements, size);
+  }
+
+  /**
+   * Write every valid placement of the patch on the quilt board in the buffer
+   * The buffer must be at least as large as the placement table of the patch
+   *
+   * @param patch      (Patch) patch to place
+   * @param placements (int[]) buffer for the packed placements
+   * @return (int) number of placements written
+   */
+  public int legalPlacements(Patch patch, int[] placements) {
+    Objects.requireNonNull(patch);
+    Objects.requireNonNull(placements);
+    var table = patch.shape().getPlacementTable(width, height);
+    int size = 0;
+    for (int i = 0; i < table.size(); i++) {
+      if (fits(table, i)) {
+        placements[size++] = table.getPlacement(i);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Return true if no square of the entry of the table is filled
+   *
+   * @param table (PlacementTable) placement table
+   * @param index (int) index of the entry
+   * @return (boolean)
+   */
+  private boolean fits(PlacementTable table, int index) {
+    return (table.getLowMask(index) & lowSquares) == 0 && (table.getHighMask(index) & highSquares) == 0;
+  }
+
   /**
    * Return the coordinates of the first valid placement of the patch
+   * The orientations are tried in this order: the patch then its mirror, rotated clockwise each time
    * Return null if there is no valid placement
    *
    * @param patch (Patch) patch to place
@@ -69,18 +148,16 @@ public class QuiltBoard {
    */
   public int[] getFirstValidPosition(Patch patch) {
     Objects.requireNonNull(patch);
-    for (int i = 0; i < 4; i++) {
-      for (int j = 0; j < 2; j++) {
-        for (int k = 0; k < height; k++) {
-          for (int l = 0; l < width; l++) {
-            if (isValidPlacement(patch, k, l)) {
-              return new int[]{k, l};
-            }
+    var shape = patch.shape();
+    for (int i = 0; i < shape.getSearchOrderSize(); i++) {
+      var orientation = shape.getSearchOrder(i);
+      for (int k = 0; k < height; k++) {
+        for (int l = 0; l < width; l++) {
+          if (isValidPlacement(orientation, k, l)) {
+            return new int[]{k, l};
           }
         }
-        patch = patch.flip();
       }
-      patch = patch.rotate();
     }
     return null;
   }
@@ -95,19 +172,22 @@ public class QuiltBoard {
    */
   public boolean isValidPlacement(Patch patch, int x, int y) {
     Objects.requireNonNull(patch);
-    for (int i = 0; i <= patch.getHeight(); i++) {
-      for (int j = 0; j <= patch.getWidth(); j++) {
-        if (patch.isSquareFilled(i, j)) {
-          if (x + j >= width || y + i >= height) {
-            return false;
-          }
-          if (!quiltBoard.get(x + j).get(y + i).isEmpty()) {
-            return false;
-          }
-        }
-      }
-    }
-    return true;
+    return isValidPlacement(patch.shape(), x, y);
+  }
+
+  /**
+   * Return true if the shape can be placed on the quilt board at the given coordinates
+   * The mask of the shape at these coordinates is read from its placement table
+   *
+   * @param shape (PatchShape) shape to place
+   * @param x     (int) x coordinate
+   * @param y     (int) y coordinate
+   * @return (boolean)
+   */
+  private boolean isValidPlacement(PatchShape shape, int x, int y) {
+    var table = shape.getPlacementTable(width, height);
+    int index = table.indexOf(shape.getOrientationIndex(), x, y);
+    return index >= 0 && fits(table, index);
   }
 
   /**
@@ -129,8 +209,30 @@ public class QuiltBoard {
     return false;
   }
 
+  /**
+   * Return true if one of the next nbPatch patches of the circle can be bought and placed on the quilt board
+   * The patches are read from the circle without creating a list
+   *
+   * @param circlePatches (CirclePatches) circle of patches
+   * @param nbPatch       (int) number of patches to look at
+   * @param player        (Player) player who wants to place the patches
+   * @return (boolean)
+   */
+  public boolean canAddPatches(CirclePatches circlePatches, int nbPatch, Player player) {
+    Objects.requireNonNull(circlePatches);
+    Objects.requireNonNull(player);
+    for (int i = 0; i < nbPatch && !circlePatches.isEmpty(); i++) {
+      var patch = circlePatches.getNextPatch(i);
+      if (patch.price() <= player.getMoney() && canAddPatch(patch)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Place the patch on the quilt board at the given coordinates
+   * The squares of the patch outside the quilt board are ignored
    *
    * @param patch (Patch) patch to place
    * @param x     (int) x coordinate
@@ -138,12 +240,53 @@ public class QuiltBoard {
    */
   public void addPatch(Patch patch, int x, int y) {
     Objects.requireNonNull(patch);
+    if (patches.size() == Byte.MAX_VALUE) {
+      throw new IllegalStateException("Too many patches on the quilt board");
+    }
     patch = patch.setCoords(x, y);
-    for (int i = 0; i <= patch.getHeight(); i++) {
-      for (int j = 0; j <= patch.getWidth(); j++) {
-        if (patch.isSquareFilled(i, j) && x + j < width && y + i < height) {
-          quiltBoard.get(x + j).set(y + i, new QuiltSquare(true, patch));
+    patches.add(patch);
+    var owner = (byte) patches.size();
+    var shape = patch.shape();
+    int minX = width;
+    int minY = height;
+    for (int i = 0; i < shape.getHeight(); i++) {
+      for (int j = 0; j < shape.getWidth(); j++) {
+        if (shape.isSquareFilled(i, j) && x + j >= 0 && y + i >= 0 && x + j < width && y + i < height) {
+          int index = index(x + j, y + i);
+          if (index < Long.SIZE) {
+            lowSquares |= 1L << index;
+          } else {
+            highSquares |= 1L << (index - Long.SIZE);
+          }
+          owners[index] = owner;
+          minX = Math.min(minX, x + j);
+          minY = Math.min(minY, y + i);
+        }
+      }
+    }
+    updateSquareSizes(minX, minY);
+  }
+
+  /**
+   * Update the size of the largest filled square ending at each square after squares were filled
+   * Only the squares at the right and below of the first filled square can change
+   *
+   * @param minX (int) smallest x coordinate of the filled squares
+   * @param minY (int) smallest y coordinate of the filled squares
+   */
+  private void updateSquareSizes(int minX, int minY) {
+    for (int y = minY; y < height; y++) {
+      for (int x = minX; x < width; x++) {
+        int index = index(x, y);
+        if (!isFilled(index)) {
+          continue;
         }
+        int size = 1;
+        if (x > 0 && y > 0) {
+          size += Math.min(squareSizes[index - 1], Math.min(squareSizes[index - width], squareSizes[index - width - 1]));
+        }
+        squareSizes[index] = (byte) size;
+        largestSquare = Math.max(largestSquare, size);
       }
     }
   }
@@ -158,39 +301,65 @@ public class QuiltBoard {
     if (squareSize <= 0 || squareSize > 9) {
       throw new IllegalArgumentException("squareSize must be between 1 and 9 inclusive");
     }
-    for (int i = 0; i <= 9 - squareSize; i++) {
-      for (int j = 0; j <= 9 - squareSize; j++) {
-        boolean squareFound = true;
-        for (int k = i; k < i + squareSize; k++) {
-          for (int l = j; l < j + squareSize; l++) {
-            if (!quiltBoard.get(k).get(l).isFilled()) {
-              squareFound = false;
-              break;
-            }
-          }
-          if (!squareFound) {
-            break;
-          }
-        }
-        if (squareFound) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return squareSize <= largestSquare;
+  }
+
+  /**
+   * Return the low long of the bitboard of the filled squares (squares 0 to 63)
+   *
+   * @return (long)
+   */
+  long getLowSquares() {
+    return lowSquares;
+  }
+
+  /**
+   * Return the high long of the bitboard of the filled squares (squares 64 to 127)
+   *
+   * @return (long)
+   */
+  long getHighSquares() {
+    return highSquares;
+  }
+
+  /**
+   * Remove every patch of the quilt board
+   */
+  void clear() {
+    lowSquares = 0;
+    highSquares = 0;
+    Arrays.fill(owners, (byte) 0);
+    Arrays.fill(squareSizes, (byte) 0);
+    largestSquare = 0;
+    patches.clear();
   }
 
   /**
    * Return the number of empty squares
+   * The filled squares are counted in the bitboard, no square is visited
    *
    * @return (int)
    */
   public int nbEmptySquares() {
-    return quiltBoard.stream()
-            .flatMap(ArrayList::stream)
-            .filter(QuiltSquare::isEmpty)
-            .mapToInt(i -> 1)
-            .sum();
+    return width * height - Long.bitCount(lowSquares) - Long.bitCount(highSquares);
+  }
+
+  /**
+   * Return the square at the given coordinates
+   *
+   * @param x (int) x coordinate
+   * @param y (int) y coordinate
+   * @return (QuiltSquare)
+   */
+  public QuiltSquare getSquare(int x, int y) {
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      throw new IllegalArgumentException("Coordinates must be on the quilt board");
+    }
+    int index = index(x, y);
+    if (!isFilled(index)) {
+      return new QuiltSquare(false, null);
+    }
+    return new QuiltSquare(true, patches.get(owners[index] - 1));
   }
 
   /**
@@ -200,7 +369,6 @@ public class QuiltBoard {
    */
   public HashMap<Patch, int[]> getPatchPositions() {
     HashMap<Patch, int[]> patchPositions = new HashMap<>();
-    List<Patch> patches = getAllPatches();
     for (Patch patch : patches) {
       if (!patchPositions.containsKey(patch)) {
         patchPositions.put(patch, new int[]{patch.x(), patch.y()});
@@ -211,15 +379,32 @@ public class QuiltBoard {
 
   /**
    * Return all patches on the quilt board
+   * A patch is listed once for every square it covers (see getPlacedPatches to list each patch once)
    *
    * @return (List < Patch >) list of patches
    */
   public List<Patch> getAllPatches() {
-    return quiltBoard.stream()
-            .flatMap(ArrayList::stream)
-            .filter(QuiltSquare::isFilled)
-            .map(QuiltSquare::getPatch)
-            .toList();
+    var allPatches = new ArrayList<Patch>();
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        int index = index(x, y);
+        if (isFilled(index)) {
+          allPatches.add(patches.get(owners[index] - 1));
+        }
+      }
+    }
+    return allPatches;
+  }
+
+  /**
+   * Return the patches placed on the quilt board in placement order
+   * Each patch has its coordinates (top left corner), angle and isFlipped set
+   * The list is a read-only view updated by addPatch
+   *
+   * @return (List < Patch >) list of patches
+   */
+  public List<Patch> getPlacedPatches() {
+    return placedPatches;
   }
 
   /**
@@ -235,7 +420,7 @@ public class QuiltBoard {
     for (int i = 0; i < height; i++) {
       sb.append(i).append(" | ");
       for (int j = 0; j < width; j++) {
-        sb.append(quiltBoard.get(j).get(i).toString()).append(" ");
+        sb.append(getSquare(j, i)).append(" ");
       }
       sb.append("\n");
     }
@@ -248,11 +433,12 @@ public class QuiltBoard {
    */
   public QuiltBoard copy() {
     QuiltBoard copy = new QuiltBoard(width, height);
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        copy.quiltBoard.get(i).set(j, quiltBoard.get(i).get(j).copy());
-      }
-    }
+    copy.lowSquares = lowSquares;
+    copy.highSquares = highSquares;
+    System.arraycopy(owners, 0, copy.owners, 0, owners.length);
+    System.arraycopy(squareSizes, 0, copy.squareSizes, 0, squareSizes.length);
+    copy.largestSquare = largestSquare;
+    copy.patches.addAll(patches);
     return copy;
   }
 
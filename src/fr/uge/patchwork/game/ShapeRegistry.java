@@ -0,0 +1,127 @@
+package fr.uge.patchwork.game;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class for the registry of the patch shapes
+ * Each format is compiled once into the distinct orientations of the patch
+ * (the rotations and mirrors which give the same squares are removed)
+ * The orientations are sorted by canonical format, so the orientation indexes and the placement tables of a
+ * patch don't depend on the format of the patch that was registered first
+ */
+public final class ShapeRegistry {
+  private static final ConcurrentHashMap<String, PatchShape> SHAPES = new ConcurrentHashMap<>();
+
+  private ShapeRegistry() {
+  }
+
+  /**
+   * Return the compiled shape of a format, compiling it if it was never registered
+   *
+   * @param format (String) format of the patch
+   * @return (PatchShape)
+   */
+  public static PatchShape get(String format) {
+    Objects.requireNonNull(format);
+    var shape = SHAPES.get(format);
+    if (shape != null) {
+      return shape;
+    }
+    return register(format);
+  }
+
+  /**
+   * Compile a format with all its orientations and register them
+   *
+   * @param format (String) format of the patch
+   * @return (PatchShape) the compiled shape of the format
+   */
+  public static synchronized PatchShape register(String format) {
+    Objects.requireNonNull(format);
+    var shape = SHAPES.get(format);
+    if (shape != null) {
+      return shape;
+    }
+    var compiled = PatchShape.compile(format);
+    shape = SHAPES.get(compiled.getFormat());
+    if (shape == null) {
+      shape = registerOrientations(compiled);
+    }
+    SHAPES.put(format, shape);
+    return shape;
+  }
+
+  /**
+   * Register the distinct orientations of a shape, sorted by canonical format, and link them together
+   * Every orientation is reached by rotating the shape and mirroring it,
+   * so two shapes of the same patch always share the same orientations, in the same order
+   *
+   * @param base (PatchShape) the shape
+   * @return (PatchShape) the registered shape equal to base
+   */
+  private static PatchShape registerOrientations(PatchShape base) {
+    var distinct = new ArrayList<PatchShape>();
+    var shape = base;
+    for (int i = 0; i < 4; i++) {
+      addIfAbsent(distinct, shape);
+      addIfAbsent(distinct, shape.mirror());
+      shape = shape.rotate();
+    }
+    distinct.sort(Comparator.comparing(PatchShape::getFormat));
+    var orientations = distinct.toArray(new PatchShape[0]);
+    for (int i = 0; i < orientations.length; i++) {
+      var orientation = orientations[i];
+      var counterRotated = orientation.rotate().rotate().rotate();
+      orientation.link(find(orientations, orientation.rotate()), find(orientations, counterRotated),
+              find(orientations, orientation.mirror()), orientations, i);
+    }
+    for (var orientation : orientations) {
+      var searchOrder = new ArrayList<PatchShape>();
+      shape = orientation;
+      for (int i = 0; i < 4; i++) {
+        addIfAbsent(searchOrder, shape);
+        addIfAbsent(searchOrder, shape.mirrored());
+        shape = shape.rotated();
+      }
+      orientation.setSearchOrder(searchOrder.toArray(new PatchShape[0]));
+    }
+    for (var orientation : orientations) {
+      SHAPES.put(orientation.getFormat(), orientation);
+    }
+    return find(orientations, base);
+  }
+
+  /**
+   * Add the shape to the list if no shape with the same format is in it
+   *
+   * @param shapes (ArrayList<PatchShape>) the list of shapes
+   * @param shape  (PatchShape) the shape to add
+   */
+  private static void addIfAbsent(ArrayList<PatchShape> shapes, PatchShape shape) {
+    for (var other : shapes) {
+      if (other.getFormat().equals(shape.getFormat())) {
+        return;
+      }
+    }
+    shapes.add(shape);
+  }
+
+  /**
+   * Return the shape of the array with the same format as the given shape
+   *
+   * @param shapes (PatchShape[]) the shapes
+   * @param shape  (PatchShape) the shape to find
+   * @return (PatchShape)
+   */
+  private static PatchShape find(PatchShape[] shapes, PatchShape shape) {
+    for (var other : shapes) {
+      if (other.getFormat().equals(shape.getFormat())) {
+        return other;
+      }
+    }
+    throw new IllegalStateException("The orientations of a shape must be closed under rotation and mirror");
+  }
+}
@@ -0,0 +1,198 @@
+package fr.uge.patchwork.game;
+
+import java.util.Objects;
+
+/**
+ * Class for the Zobrist keys of the states of a game
+ * The hash of a state is the xor of the keys of its features: the filled squares of the quilt boards,
+ * the position, money and earnings of the players, the links between the patches of the circle,
+ * the patch after the neutral token, the leather patches left, the owner of the special tile and
+ * a pending leather patch
+ * The keys are derived from a fixed seed by the SplitMix64 finalizer, so a hash is the same
+ * from one run to the next and can be stored
+ */
+public final class ZobristHash {
+  private static final long SEED = 0x5041544348574F52L;
+  private static final int MAX_SQUARES = 128;
+
+  private static final int POSITION = 0;
+  private static final int MONEY = 1;
+  private static final int EARNINGS = 2;
+  private static final int LINK = 3;
+  private static final int NEUTRAL_TOKEN = 4;
+  private static final int LEATHER_PATCH = 5;
+  private static final int SPECIAL_TILE = 6;
+  private static final int LEATHER_PHASE = 7;
+  private static final int SQUARE = 8;
+
+  private static final long[] SQUARE_KEYS = new long[GameState.NB_PLAYERS * MAX_SQUARES];
+
+  static {
+    for (int player = 0; player < GameState.NB_PLAYERS; player++) {
+      for (int square = 0; square < MAX_SQUARES; square++) {
+        SQUARE_KEYS[player * MAX_SQUARES + square] = key(SQUARE, player, square);
+      }
+    }
+  }
+
+  private ZobristHash() {
+  }
+
+  /**
+   * Return the SplitMix64 finalizer of a value
+   *
+   * @param value (long) the value
+   * @return (long)
+   */
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+    return value ^ (value >>> 31);
+  }
+
+  /**
+   * Return the key of a feature
+   *
+   * @param feature (int) kind of the feature
+   * @param first   (int) first index of the feature
+   * @param second  (int) second index of the feature
+   * @return (long)
+   */
+  private static long key(int feature, int first, int second) {
+    return mix(SEED + ((long) feature << 56 ^ (long) (first & 0xFFFFFF) << 32 ^ (second & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L);
+  }
+
+  /**
+   * Return the key of the position of a player
+   *
+   * @param player   (int) index of the player
+   * @param position (int) position on the time track
+   * @return (long)
+   */
+  public static long position(int player, int position) {
+    return key(POSITION, player, position);
+  }
+
+  /**
+   * Return the key of the money of a player
+   *
+   * @param player (int) index of the player
+   * @param money  (int) money of the player
+   * @return (long)
+   */
+  public static long money(int player, int money) {
+    return key(MONEY, player, money);
+  }
+
+  /**
+   * Return the key of the earnings of a player
+   *
+   * @param player   (int) index of the player
+   * @param earnings (int) earnings of the player
+   * @return (long)
+   */
+  public static long earnings(int player, int earnings) {
+    return key(EARNINGS, player, earnings);
+  }
+
+  /**
+   * Return the key of a patch followed by another one in the circle
+   *
+   * @param id     (int) id of the patch
+   * @param nextId (int) id of the next patch
+   * @return (long)
+   */
+  public static long link(int id, int nextId) {
+    return key(LINK, id, nextId);
+  }
+
+  /**
+   * Return the key of the patch just after the neutral token
+   *
+   * @param id (int) id of the patch
+   * @return (long)
+   */
+  public static long neutralToken(int id) {
+    return key(NEUTRAL_TOKEN, 0, id);
+  }
+
+  /**
+   * Return the key of a leather patch left on the time track
+   *
+   * @param index (int) index of the leather patch (in position order)
+   * @return (long)
+   */
+  public static long leatherPatch(int index) {
+    return key(LEATHER_PATCH, 0, index);
+  }
+
+  /**
+   * Return the key of the owner of the special tile
+   *
+   * @param player (int) index of the player
+   * @return (long)
+   */
+  public static long specialTile(int player) {
+    return key(SPECIAL_TILE, 0, player);
+  }
+
+  /**
+   * Return the key of a leather patch waiting to be placed
+   *
+   * @return (long)
+   */
+  public static long leatherPhase() {
+    return key(LEATHER_PHASE, 0, 0);
+  }
+
+  /**
+   * Return the xor of the keys of the filled squares of a quilt board
+   *
+   * @param player (int) index of the player
+   * @param low    (long) low long of the filled squares
+   * @param high   (long) high long of the filled squares
+   * @return (long)
+   */
+  public static long squares(int player, long low, long high) {
+    long hash = 0;
+    int offset = player * MAX_SQUARES;
+    for (; low != 0; low &= low - 1) {
+      hash ^= SQUARE_KEYS[offset + Long.numberOfTrailingZeros(low)];
+    }
+    for (; high != 0; high &= high - 1) {
+      hash ^= SQUARE_KEYS[offset + Long.SIZE + Long.numberOfTrailingZeros(high)];
+    }
+    return hash;
+  }
+
+  /**
+   * Return the hash of a state, computed from all its features
+   *
+   * @param state (GameState) the state
+   * @return (long)
+   */
+  public static long of(GameState state) {
+    Objects.requireNonNull(state);
+    long hash = 0;
+    for (int i = 0; i < GameState.NB_PLAYERS; i++) {
+      hash ^= squares(i, state.getQuiltLow(i), state.getQuiltHigh(i));
+      hash ^= position(i, state.getPosition(i)) ^ money(i, state.getMoney(i)) ^ earnings(i, state.getEarnings(i));
+    }
+    int ringSize = state.getRingSize();
+    for (int i = 0; i < ringSize; i++) {
+      hash ^= link(state.getRingPatch(i), state.getRingPatch((i + 1) % ringSize));
+    }
+    if (ringSize > 0) {
+      hash ^= neutralToken(state.getRingPatch(state.getNeutralToken()));
+    }
+    for (int i = 0; i < state.getRules().getNbLeatherPatches(); i++) {
+      if (state.hasLeatherPatch(i)) {
+        hash ^= leatherPatch(i);
+      }
+    }
+    if (state.getSpecialTileOwner() >= 0) {
+      hash ^= specialTile(state.getSpecialTileOwner());
+    }
+    return hash;
+  }
+}
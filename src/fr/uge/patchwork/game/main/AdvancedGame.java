@@ -12,9 +12,23 @@ import java.util.*;
  * Class for an advanced game
  */
 public final class AdvancedGame implements Game {
+  /**
+   * File of the circle of patches of the advanced game
+   */
+  public static final Path CIRCLE_PATCHES = Path.of("src/fr/uge/patchwork/game/assets/complete_circle_patches.txt");
+  /**
+   * File of the central board of the advanced game
+   */
+  public static final Path CENTRAL_BOARD = Path.of("src/fr/uge/patchwork/game/assets/complete_board.txt");
+  /**
+   * Size of the special tile of the advanced game
+   */
+  public static final int SPECIAL_TILE_SIZE = 7;
+
   private final ArrayList<Player> players;
   private final CirclePatches circlePatches;
   private final CentralBoard centralBoard;
+  private final long seed;
 
   private final SpecialTile specialTile;
 
@@ -22,13 +36,24 @@ public final class AdvancedGame implements Game {
    * Init an advanced game
    *
    * @param players (ArrayList<Player>) list of players
+   * @param seed    (long) seed of the shuffle of the circle of patches
    */
-  public AdvancedGame(ArrayList<Player> players) {
+  public AdvancedGame(ArrayList<Player> players, long seed) {
     Objects.requireNonNull(players);
     this.players = players;
+    this.seed = seed;
     this.circlePatches = new CirclePatches();
     this.centralBoard = new CentralBoard();
-    this.specialTile = new SpecialTile(7, 0, null);
+    this.specialTile = newSpecialTile();
+  }
+
+  /**
+   * Return a new special tile of the advanced game, owned by no player
+   *
+   * @return (SpecialTile)
+   */
+  public static SpecialTile newSpecialTile() {
+    return new SpecialTile(SPECIAL_TILE_SIZE, 0, null);
   }
 
   /**
@@ -38,79 +63,13 @@ public final class AdvancedGame implements Game {
    */
   @Override
   public void init() throws IOException {
-    circlePatches.load(Path.of("src/fr/uge/patchwork/game/assets/complete_circle_patches.txt"));
-    centralBoard.load(Path.of("src/fr/uge/patchwork/game/assets/complete_board.txt"));
-    circlePatches.shuffle();
+    circlePatches.load(CIRCLE_PATCHES);
+    centralBoard.load(CENTRAL_BOARD);
+    circlePatches.shuffle(new SplittableRandom(seed));
     circlePatches.placeNeutralToken();
     centralBoard.initPlayers(players);
   }
 
-  /**
-   * Main actions of the game for a player
-   *
-   * @param display (Display) the display
-   * @param player  (Player) the player
-   */
-  private void mainAction(Display display, Player player) {
-    List<String> options;
-    if (player.getQuiltBoard().canAddPatches(circlePatches.getNextPatches(3), player)) {
-      options = List.of("1. Buy a patch", "2. Pass");
-    } else {
-      options = List.of("2. Pass");
-    }
-    Optional<Map<Patch, int[]>> action = display.chooseAction(player, circlePatches, 3, options);
-    if (action.isEmpty()) {
-      player.passTurn(players, centralBoard);
-    } else {
-      Patch patch = action.get().keySet().iterator().next();
-      int x = action.get().get(patch)[0];
-      int y = action.get().get(patch)[1];
-      player.buyPatch(patch, circlePatches, centralBoard);
-      player.placePatch(patch, x, y);
-    }
-  }
-
-  /**
-   * Move tokens of the game and do the actions if needed
-   *
-   * @param display (Display) the display
-   * @param player  (Player) the player
-   */
-  private void moveTokenActions(Display display, Player player) {
-    int oldPosition = centralBoard.moveToken(player);
-    display.displayPlayerAfterMove(player);
-    if (centralBoard.playerPassedOnButton(player, oldPosition)) {
-      display.buttonFound();
-    }
-    var leatherPatch = centralBoard.playerPassedOnPatch(player, oldPosition);
-    if (leatherPatch != null) {
-      Map<Patch, int[]> leatherPatchP = display.leatherPatchFound(player, leatherPatch);
-      Patch lp = leatherPatchP.keySet().iterator().next();
-      int x = leatherPatchP.get(lp)[0];
-      int y = leatherPatchP.get(lp)[1];
-      player.getQuiltBoard().addPatch(lp, x, y);
-      centralBoard.removeLeatherPatch(leatherPatch);
-    }
-    if (!specialTile.isOwned() && player.checkSpecialTile(specialTile)) {
-      display.specialTileFound(player, specialTile);
-      specialTile.setPlayer(player);
-    }
-  }
-
-  /**
-   * End of the game actions
-   *
-   * @param display (Display) the display
-   */
-  private void endGame(Display display) {
-    var specialTileOwner = specialTile.getPlayer();
-    if (specialTileOwner != null) {
-      specialTileOwner.addSpecialTileGain(specialTile);
-    }
-    var winner = centralBoard.getWinner(players);
-    display.displayWinner(winner);
-  }
-
   /**
    * Play the game
    *
@@ -120,19 +79,7 @@ public final class AdvancedGame implements Game {
   public void play(Display display) {
     Objects.requireNonNull(display);
     // var player = display.whoStarts(players);
-    var player = players.get(0);
-    display.askContinue();
-    do {
-      display.displayBoard(centralBoard);
-      display.askContinue();
-      display.displayPlayer(player);
-      display.askContinue();
-      mainAction(display, player);
-      moveTokenActions(display, player);
-      display.askContinue();
-      player = player.nextPlayer(players);
-      display.printNextPlayer(player);
-    } while (!centralBoard.gameIsFinished(players, circlePatches));
-    endGame(display);
+    var adapter = new DisplayAdapter(display);
+    new GameDriver(players, centralBoard, circlePatches, specialTile, adapter.providers(players), adapter).play();
   }
 }
@@ -3,7 +3,6 @@ package fr.uge.patchwork.game.main;
 import fr.uge.patchwork.display.Display;
 import fr.uge.patchwork.game.CentralBoard;
 import fr.uge.patchwork.game.CirclePatches;
-import fr.uge.patchwork.game.Patch;
 import fr.uge.patchwork.game.Player;
 
 import java.io.IOException;
@@ -15,19 +14,30 @@ import java.util.*;
  * Class for a basic game
  */
 public final class BasicGame implements Game {
+  /**
+   * File of the circle of patches of the basic game
+   */
+  public static final Path CIRCLE_PATCHES = Path.of("src/fr/uge/patchwork/game/assets/basic_circle_patches.txt");
+  /**
+   * File of the central board of the basic game
+   */
+  public static final Path CENTRAL_BOARD = Path.of("src/fr/uge/patchwork/game/assets/basic_board.txt");
 
   private final ArrayList<Player> players;
   private final CirclePatches circlePatches;
   private final CentralBoard centralBoard;
+  private final long seed;
 
   /**
    * Init a basic game
    *
    * @param players (ArrayList<Player>) list of players
+   * @param seed    (long) seed of the shuffle of the circle of patches
    */
-  public BasicGame(ArrayList<Player> players) {
+  public BasicGame(ArrayList<Player> players, long seed) {
     Objects.requireNonNull(players);
     this.players = players;
+    this.seed = seed;
     this.circlePatches = new CirclePatches();
     this.centralBoard = new CentralBoard();
   }
@@ -39,59 +49,13 @@ public final class BasicGame implements Game {
    */
   @Override
   public void init() throws IOException {
-    circlePatches.load(Path.of("src/fr/uge/patchwork/game/assets/basic_circle_patches.txt"));
-    centralBoard.load(Path.of("src/fr/uge/patchwork/game/assets/basic_board.txt"));
-    circlePatches.shuffle();
+    circlePatches.load(CIRCLE_PATCHES);
+    centralBoard.load(CENTRAL_BOARD);
+    circlePatches.shuffle(new SplittableRandom(seed));
     circlePatches.placeNeutralToken();
     centralBoard.initPlayers(players);
   }
 
-
-  /**
-   * Main actions of the game for a player
-   *
-   * @param display (Display) the display
-   * @param player  (Player) the player
-   */
-  private void mainAction(Display display, Player player) {
-    List<String> options;
-    Objects.requireNonNull(display);
-    if (player.getQuiltBoard().canAddPatches(circlePatches.getNextPatches(3), player)) {
-      options = List.of("1. Buy a patch", "2. Pass");
-    } else {
-      options = List.of("2. Pass");
-    }
-    Optional<Map<Patch, int[]>> action = display.chooseAction(player, circlePatches, 3, options);
-    if (action.isEmpty()) {
-      player.passTurn(players, centralBoard);
-    } else {
-      Patch patch = action.get().keySet().iterator().next();
-      int x = action.get().get(patch)[0];
-      int y = action.get().get(patch)[1];
-      player.buyPatch(patch, circlePatches, centralBoard);
-      player.placePatch(patch, x, y);
-    }
-  }
-
-  /**
-   * Move tokens of the game and do the actions if needed
-   *
-   * @param display (Display) the display
-   * @param player  (Player) the player
-   */
-  private void moveTokenActions(Display display, Player player) {
-    int oldPosition = centralBoard.moveToken(player);
-    if (centralBoard.playerPassedOnButton(player, oldPosition)) {
-      display.buttonFound();
-    }
-    var leatherPatch = centralBoard.playerPassedOnPatch(player, oldPosition);
-    if (leatherPatch != null) {
-      display.leatherPatchFound(player, leatherPatch);
-      centralBoard.removeLeatherPatch(leatherPatch);
-    }
-    display.askContinue();
-  }
-
   /**
    * Play the game
    *
@@ -101,20 +65,7 @@ public final class BasicGame implements Game {
   public void play(Display display) {
     Objects.requireNonNull(display);
     // var player = display.whoStarts(players);
-    var player = players.get(0);
-    display.askContinue();
-    do {
-      display.displayBoard(centralBoard);
-      display.askContinue();
-      display.displayPlayer(player);
-      display.askContinue();
-      mainAction(display, player);
-      display.displayPlayerAfterMove(player);
-      moveTokenActions(display, player);
-      player = player.nextPlayer(players);
-      display.printNextPlayer(player);
-    } while (!centralBoard.gameIsFinished(players, circlePatches));
-    var winner = centralBoard.getWinner(players);
-    display.displayWinner(winner);
+    var adapter = new DisplayAdapter(display);
+    new GameDriver(players, centralBoard, circlePatches, null, adapter.providers(players), adapter).play();
   }
 }
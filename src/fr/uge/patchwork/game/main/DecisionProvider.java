@@ -0,0 +1,33 @@
+package fr.uge.patchwork.game.main;
+
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.Player;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interface for the decisions of a player during a game run by a GameDriver (a human through a display, a bot...)
+ */
+public interface DecisionProvider {
+  /**
+   * Return the action chosen by a player at the start of its turn
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   * @return (Optional < Map < Patch, int[] > >) empty if the player passes,
+   * else the patch to buy in its orientation and its position on the quilt board
+   */
+  Optional<Map<Patch, int[]>> chooseAction(GameDriver driver, Player player);
+
+  /**
+   * Return the position chosen by a player for the leather patch found during its turn
+   * Only asked when the leather patch can be placed on the quilt board of the player
+   *
+   * @param driver       (GameDriver) the driver of the game
+   * @param player       (Player) the player
+   * @param leatherPatch (Patch) the leather patch
+   * @return (Map < Patch, int[] >) the leather patch in its orientation and its position on the quilt board
+   */
+  Map<Patch, int[]> placeLeatherPatch(GameDriver driver, Player player, Patch leatherPatch);
+}
@@ -0,0 +1,158 @@
+package fr.uge.patchwork.game.main;
+
+import fr.uge.patchwork.display.Display;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.SpecialTile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Class for the adapter of a display to a game driver: the events of the game are shown on the
+ * display and the decisions of the human players are asked to it
+ */
+final class DisplayAdapter implements DecisionProvider, GameListener {
+  private final Display display;
+
+  /**
+   * Init the adapter of a display
+   *
+   * @param display (Display) the display
+   */
+  DisplayAdapter(Display display) {
+    this.display = Objects.requireNonNull(display);
+  }
+
+  /**
+   * Return the decision providers of the players: the players that take their decisions
+   * themselves (the bots) and the display for the others
+   *
+   * @param players (List<Player>) the players
+   * @return (List < DecisionProvider >)
+   */
+  List<DecisionProvider> providers(List<Player> players) {
+    var providers = new ArrayList<DecisionProvider>(players.size());
+    for (var player : players) {
+      providers.add(player instanceof DecisionProvider provider ? provider : this);
+    }
+    return providers;
+  }
+
+  /**
+   * Ask the display the action of a human player
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   * @return (Optional < Map < Patch, int[] > >) empty if the player passes
+   */
+  @Override
+  public Optional<Map<Patch, int[]>> chooseAction(GameDriver driver, Player player) {
+    List<String> options;
+    if (driver.canBuyPatch(player)) {
+      options = List.of("1. Buy a patch", "2. Pass");
+    } else {
+      options = List.of("2. Pass");
+    }
+    return display.chooseAction(player, driver.getCirclePatches(), GameRules.NB_NEXT_PATCHES, options);
+  }
+
+  /**
+   * Ask the display the position of the leather patch found by a human player
+   *
+   * @param driver       (GameDriver) the driver of the game
+   * @param player       (Player) the player
+   * @param leatherPatch (Patch) the leather patch
+   * @return (Map < Patch, int[] >)
+   */
+  @Override
+  public Map<Patch, int[]> placeLeatherPatch(GameDriver driver, Player player, Patch leatherPatch) {
+    return display.leatherPatchFound(player, leatherPatch);
+  }
+
+  /**
+   * Wait for the user before the first turn
+   *
+   * @param driver (GameDriver) the driver of the game
+   */
+  @Override
+  public void gameStarted(GameDriver driver) {
+    display.askContinue();
+  }
+
+  /**
+   * Display the central board and the player
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  @Override
+  public void turnStarted(GameDriver driver, Player player) {
+    display.displayBoard(driver.getCentralBoard());
+    display.askContinue();
+    display.displayPlayer(player);
+    display.askContinue();
+  }
+
+  /**
+   * Display the player after its move
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  @Override
+  public void playerMoved(GameDriver driver, Player player) {
+    display.displayPlayerAfterMove(player);
+  }
+
+  /**
+   * Display the button found
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  @Override
+  public void buttonFound(GameDriver driver, Player player) {
+    display.buttonFound();
+  }
+
+  /**
+   * Display the special tile found
+   *
+   * @param driver      (GameDriver) the driver of the game
+   * @param player      (Player) the player
+   * @param specialTile (SpecialTile) the special tile
+   */
+  @Override
+  public void specialTileFound(GameDriver driver, Player player, SpecialTile specialTile) {
+    display.specialTileFound(player, specialTile);
+  }
+
+  /**
+   * Wait for the user and display the next player
+   *
+   * @param driver     (GameDriver) the driver of the game
+   * @param player     (Player) the player
+   * @param nextPlayer (Player) the player of the next turn
+   */
+  @Override
+  public void turnEnded(GameDriver driver, Player player, Player nextPlayer) {
+    display.askContinue();
+    display.printNextPlayer(nextPlayer);
+  }
+
+  /**
+   * Display the winner
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param winner (Player) the winner
+   */
+  @Override
+  public void gameEnded(GameDriver driver, Player winner) {
+    display.displayWinner(winner);
+  }
+}
@@ -37,12 +37,14 @@ public sealed interface Game permits BasicGame, AdvancedGame {
    * Get the game corresponding to the name
    *
    * @param gameName (String) the name of the game
+   * @param players  (ArrayList<Player>) the players
+   * @param seed     (long) seed of the shuffle of the circle of patches
    * @return (Game) the game
    */
-  static Game selectGame(String gameName, ArrayList<Player> players) {
+  static Game selectGame(String gameName, ArrayList<Player> players, long seed) {
     return switch (gameName) {
-      case "basic" -> new BasicGame(players);
-      case "advanced" -> new AdvancedGame(players);
+      case "basic" -> new BasicGame(players, seed);
+      case "advanced" -> new AdvancedGame(players, seed);
       default -> throw new IllegalArgumentException("Unknown game: " + gameName);
     };
   }
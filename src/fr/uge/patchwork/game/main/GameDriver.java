@@ -0,0 +1,237 @@
+package fr.uge.patchwork.game.main;
+
+import fr.uge.patchwork.game.CentralBoard;
+import fr.uge.patchwork.game.CirclePatches;
+import fr.uge.patchwork.game.GameRules;
+import fr.uge.patchwork.game.GameState;
+import fr.uge.patchwork.game.Patch;
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.SpecialTile;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class for the driver of a game: it runs the turns of the game on its objects without display
+ * The decisions of each player are asked to its decision provider and the events of the game are
+ * sent to a listener, so the same turns are played by the interactive games and by headless games
+ */
+public final class GameDriver {
+  private final ArrayList<Player> players;
+  private final CentralBoard centralBoard;
+  private final CirclePatches circlePatches;
+  private final SpecialTile specialTile;
+  private final Map<Player, DecisionProvider> providers;
+  private final GameListener listener;
+  private final GameRules rules;
+
+  /**
+   * Init the driver of a game whose objects are already initialized (patches shuffled, neutral token
+   * placed and players on the central board)
+   *
+   * @param players       (ArrayList<Player>) the players, the first one starts
+   * @param centralBoard  (CentralBoard) the central board
+   * @param circlePatches (CirclePatches) the circle of patches
+   * @param specialTile   (SpecialTile) the special tile, null for the basic game
+   * @param providers     (List<DecisionProvider>) the decision provider of each player, in the order of the players
+   * @param listener      (GameListener) the listener of the events of the game
+   */
+  public GameDriver(ArrayList<Player> players, CentralBoard centralBoard, CirclePatches circlePatches,
+                    SpecialTile specialTile, List<? extends DecisionProvider> providers, GameListener listener) {
+    Objects.requireNonNull(players);
+    Objects.requireNonNull(centralBoard);
+    Objects.requireNonNull(circlePatches);
+    Objects.requireNonNull(providers);
+    Objects.requireNonNull(listener);
+    if (providers.size() != players.size()) {
+      throw new IllegalArgumentException("Each player needs a decision provider");
+    }
+    this.players = players;
+    this.centralBoard = centralBoard;
+    this.circlePatches = circlePatches;
+    this.specialTile = specialTile;
+    this.providers = new IdentityHashMap<>();
+    for (int i = 0; i < players.size(); i++) {
+      this.providers.put(players.get(i), Objects.requireNonNull(providers.get(i)));
+    }
+    this.listener = listener;
+    this.rules = GameRules.of(players, centralBoard, circlePatches, specialTile);
+  }
+
+  /**
+   * Return the players of the game
+   *
+   * @return (ArrayList < Player >)
+   */
+  public ArrayList<Player> getPlayers() {
+    return players;
+  }
+
+  /**
+   * Return the central board of the game
+   *
+   * @return (CentralBoard)
+   */
+  public CentralBoard getCentralBoard() {
+    return centralBoard;
+  }
+
+  /**
+   * Return the circle of patches of the game
+   *
+   * @return (CirclePatches)
+   */
+  public CirclePatches getCirclePatches() {
+    return circlePatches;
+  }
+
+  /**
+   * Return the special tile of the game, null for the basic game
+   *
+   * @return (SpecialTile)
+   */
+  public SpecialTile getSpecialTile() {
+    return specialTile;
+  }
+
+  /**
+   * Return the rules of the game
+   *
+   * @return (GameRules)
+   */
+  public GameRules getRules() {
+    return rules;
+  }
+
+  /**
+   * Return a snapshot of the current state of the game, for the bots
+   *
+   * @return (GameState)
+   */
+  public GameState getState() {
+    return GameState.of(rules, players, centralBoard, circlePatches, specialTile);
+  }
+
+  /**
+   * Return true if the player can buy one of the next patches
+   *
+   * @param player (Player) the player
+   * @return (boolean)
+   */
+  public boolean canBuyPatch(Player player) {
+    Objects.requireNonNull(player);
+    return player.getQuiltBoard().canAddPatches(circlePatches, GameRules.NB_NEXT_PATCHES, player);
+  }
+
+  /**
+   * Return true if the game is finished
+   *
+   * @return (boolean)
+   */
+  public boolean isFinished() {
+    return centralBoard.gameIsFinished(players, circlePatches);
+  }
+
+  /**
+   * Play the game until its end and return the winner
+   *
+   * @return (Player)
+   */
+  public Player play() {
+    listener.gameStarted(this);
+    var player = players.get(0);
+    do {
+      player = playTurn(player);
+    } while (!isFinished());
+    return endGame();
+  }
+
+  /**
+   * Play the turn of a player and return the player of the next turn
+   *
+   * @param player (Player) the player
+   * @return (Player)
+   */
+  public Player playTurn(Player player) {
+    Objects.requireNonNull(player);
+    var provider = providers.get(player);
+    if (provider == null) {
+      throw new IllegalArgumentException("Unknown player: " + player.getName());
+    }
+    listener.turnStarted(this, player);
+    mainAction(provider, player);
+    moveTokenActions(provider, player);
+    var nextPlayer = player.nextPlayer(players);
+    listener.turnEnded(this, player, nextPlayer);
+    return nextPlayer;
+  }
+
+  /**
+   * Buy the patch chosen by the player, or pass
+   *
+   * @param provider (DecisionProvider) the decision provider of the player
+   * @param player   (Player) the player
+   */
+  private void mainAction(DecisionProvider provider, Player player) {
+    var action = Objects.requireNonNull(provider.chooseAction(this, player));
+    if (action.isEmpty()) {
+      player.passTurn(players, centralBoard);
+      return;
+    }
+    var placement = action.get();
+    Patch patch = placement.keySet().iterator().next();
+    int[] position = placement.get(patch);
+    player.buyPatch(patch, circlePatches, centralBoard);
+    player.placePatch(patch, position[0], position[1]);
+  }
+
+  /**
+   * Move the time token of the player and do the actions of the squares it passed
+   * The leather patch found is placed only by the rules of the advanced game, when it fits on the
+   * quilt board of the player
+   *
+   * @param provider (DecisionProvider) the decision provider of the player
+   * @param player   (Player) the player
+   */
+  private void moveTokenActions(DecisionProvider provider, Player player) {
+    int oldPosition = centralBoard.moveToken(player);
+    listener.playerMoved(this, player);
+    if (centralBoard.playerPassedOnButton(player, oldPosition)) {
+      listener.buttonFound(this, player);
+    }
+    var leatherPatch = centralBoard.playerPassedOnPatch(player, oldPosition);
+    if (leatherPatch != null) {
+      if (rules.placesLeatherPatches() && player.getQuiltBoard().canAddPatch(leatherPatch)) {
+        var placement = Objects.requireNonNull(provider.placeLeatherPatch(this, player, leatherPatch));
+        Patch patch = placement.keySet().iterator().next();
+        int[] position = placement.get(patch);
+        player.getQuiltBoard().addPatch(patch, position[0], position[1]);
+      }
+      centralBoard.removeLeatherPatch(leatherPatch);
+    }
+    if (specialTile != null && !specialTile.isOwned() && player.checkSpecialTile(specialTile)) {
+      listener.specialTileFound(this, player, specialTile);
+      specialTile.setPlayer(player);
+    }
+  }
+
+  /**
+   * Give the special tile to its owner and return the winner
+   *
+   * @return (Player)
+   */
+  private Player endGame() {
+    if (specialTile != null) {
+      var specialTileOwner = specialTile.getPlayer();
+      if (specialTileOwner != null) {
+        specialTileOwner.addSpecialTileGain(specialTile);
+      }
+    }
+    var winner = centralBoard.getWinner(players);
+    listener.gameEnded(this, winner);
+    return winner;
+  }
+}
@@ -0,0 +1,80 @@
+package fr.uge.patchwork.game.main;
+
+import fr.uge.patchwork.game.Player;
+import fr.uge.patchwork.game.SpecialTile;
+
+/**
+ * Interface for the events of a game run by a GameDriver
+ * Every event does nothing by default, so a headless game uses NONE
+ */
+public interface GameListener {
+  /**
+   * Listener that ignores every event
+   */
+  GameListener NONE = new GameListener() {
+  };
+
+  /**
+   * Called before the first turn
+   *
+   * @param driver (GameDriver) the driver of the game
+   */
+  default void gameStarted(GameDriver driver) {
+  }
+
+  /**
+   * Called at the start of the turn of a player, before its action
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  default void turnStarted(GameDriver driver, Player player) {
+  }
+
+  /**
+   * Called once the time token of a player is moved
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  default void playerMoved(GameDriver driver, Player player) {
+  }
+
+  /**
+   * Called when a player passes over a button
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param player (Player) the player
+   */
+  default void buttonFound(GameDriver driver, Player player) {
+  }
+
+  /**
+   * Called when a player wins the special tile
+   *
+   * @param driver      (GameDriver) the driver of the game
+   * @param player      (Player) the player
+   * @param specialTile (SpecialTile) the special tile
+   */
+  default void specialTileFound(GameDriver driver, Player player, SpecialTile specialTile) {
+  }
+
+  /**
+   * Called at the end of the turn of a player
+   *
+   * @param driver     (GameDriver) the driver of the game
+   * @param player     (Player) the player
+   * @param nextPlayer (Player) the player of the next turn
+   */
+  default void turnEnded(GameDriver driver, Player player, Player nextPlayer) {
+  }
+
+  /**
+   * Called at the end of the game
+   *
+   * @param driver (GameDriver) the driver of the game
+   * @param winner (Player) the winner
+   */
+  default void gameEnded(GameDriver driver, Player winner) {
+  }
+}
@@ -1,6 +1,9 @@
 package fr.uge.patchwork.main;
 
 import fr.umlv.zen5.Application;
+import fr.uge.patchwork.bot.BotPlayer;
+import fr.uge.patchwork.bot.EndgameBot;
+import fr.uge.patchwork.bot.MctsBot;
 import fr.uge.patchwork.display.ASCII;
 import fr.uge.patchwork.display.Display;
 import fr.uge.patchwork.display.GUI;
@@ -10,6 +13,7 @@ import fr.uge.patchwork.game.main.Game;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * Main class of the game.
@@ -17,6 +21,8 @@ import java.util.Scanner;
 public class Patchwork {
 
   private static final int MONEY = 5;
+  private static final int BOT_ITERATIONS = 20_000;
+  private static final long BOT_MILLIS = 2_000;
   private static final Color BACKGROUND_COLOR = new Color(235, 220, 179);
 
   /**
@@ -38,15 +44,42 @@ public class Patchwork {
     };
   }
 
+  /**
+   * Switch between a human and a bot for a player.
+   *
+   * @param name (String) the name of the player.
+   * @return (String) the type chosen by the user.
+   */
+  private static String selectPlayerType(String name) {
+    System.out.println("Select " + name + ":");
+    System.out.println("1. Human");
+    System.out.println("2. Bot (MCTS)");
+    System.out.print("Your choice: ");
+    var reader = new Scanner(System.in);
+    var choice = reader.nextLine();
+    while (!choice.equals("1") && !choice.equals("2")) {
+      System.out.print("Your choice (1-2): ");
+      choice = reader.nextLine();
+    }
+    return choice.equals("1") ? "Human" : "Bot";
+  }
+
   /**
    * Init the two players.
    *
+   * @param random (SplittableRandom) the generator of the seeds of the bots.
    * @return (ArrayList < Player >) the list of the players.
    */
-  private static ArrayList<Player> initPlayers() {
+  private static ArrayList<Player> initPlayers(SplittableRandom random) {
     ArrayList<Player> players = new ArrayList<>();
     for (int i = 0; i < 2; i++) {
-      players.add(new Player("Player " + (i + 1), (char) ('1' + i), MONEY));
+      var name = "Player " + (i + 1);
+      var shortName = (char) ('1' + i);
+      switch (selectPlayerType(name)) {
+        case "Human" -> players.add(new Player(name, shortName, MONEY));
+        case "Bot" -> players.add(new BotPlayer(name + " (MCTS)", shortName, MONEY,
+                new EndgameBot(new MctsBot(BOT_ITERATIONS, BOT_MILLIS, random.nextLong()))));
+      }
     }
     return players;
   }
@@ -55,9 +88,11 @@ public class Patchwork {
    * Start the game.
    *
    * @param display (Display) the display chosen by the user.
+   * @param players (ArrayList < Player >) the players.
+   * @param seed    (long) the seed of the shuffle of the game.
    */
-  private static void startGame(Display display) {
-    var game = Game.selectGame(display.askGameMode(Game.getGames()), initPlayers());
+  private static void startGame(Display display, ArrayList<Player> players, long seed) {
+    var game = Game.selectGame(display.askGameMode(Game.getGames()), players, seed);
     try {
       game.init();
     } catch (Exception e) {
@@ -69,19 +104,26 @@ public class Patchwork {
   /**
    * Main method 
    * of the game.
+   * The shuffle and the bots are seeded from a root seed, given as first argument to replay a game
+   * (a new one otherwise, printed at the start).
    *
    * @param args (String[]) the arguments.
    */
   public static void main(String[] args) {
+    long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+    System.out.println("Seed: " + seed);
+    var random = new SplittableRandom(seed);
+    long gameSeed = random.nextLong();
     var displayString = selectDisplay();
+    var players = initPlayers(random.split());
     switch (displayString) {
       case "ASCII" -> {
         var display = new ASCII();
-        startGame(display);
+        startGame(display, players, gameSeed);
       }
       case "GUI" -> Application.run(BACKGROUND_COLOR, context -> {
         var display = new GUI(context);
-        startGame(display);
+        startGame(display, players, gameSeed);
       });
     }
   }